@@ -17,6 +17,7 @@ import net.binis.codegen.annotation.augment.AugmentTargetType;
 import net.binis.codegen.generation.core.interfaces.PrototypeData;
 import net.binis.intellij.tools.Binis;
 import net.binis.intellij.tools.Lookup;
+import net.binis.intellij.tools.Metrics;
 import net.binis.intellij.tools.objects.EnricherData;
 import net.binis.intellij.util.PrototypeUtil;
 import org.apache.commons.lang3.StringUtils;
@@ -39,6 +40,15 @@ public class CodeGenAnnotator implements Annotator {
 
     @Override
     public void annotate(@NotNull final PsiElement element, @NotNull AnnotationHolder holder) {
+        var start = Metrics.start();
+        try {
+            doAnnotate(element, holder);
+        } finally {
+            Metrics.stop("annotator", start);
+        }
+    }
+
+    protected void doAnnotate(PsiElement element, AnnotationHolder holder) {
         try {
             if (!DumbService.isDumb(element.getProject()) && Binis.isCodeGenUsed(element)) {
                 if (element instanceof PsiClass cls) {
@@ -46,7 +56,7 @@ public class CodeGenAnnotator implements Annotator {
                     if (nonNull(data)) {
                         var augments = calcAugments(element, data);
                         var intf = Lookup.getGeneratedName(cls);
-                        var intfCls = Lookup.findClass(intf);
+                        var intfCls = Lookup.findClass(element, intf);
                         var ident = Lookup.findIdentifier(cls);
                         if (nonNull(ident)) {
                             var className = intfCls.map(psiClass -> (psiClass.getContainingFile().getVirtualFile().getCanonicalPath() + ":" + psiClass.getTextOffset())).orElse("unknown");
@@ -59,8 +69,8 @@ public class CodeGenAnnotator implements Annotator {
                                     .tooltip(tooltip)
                                     .range(range).textAttributes(DefaultLanguageHighlighterColors.CLASS_NAME).create();
                         }
-                    } else if (Lookup.isGenerated(cls.getQualifiedName())) {
-                        var c = Lookup.getPrototypeClass(cls.getQualifiedName());
+                    } else if (Lookup.isGenerated(element.getProject(), cls.getQualifiedName())) {
+                        var c = Lookup.getPrototypeClass(element.getProject(), cls.getQualifiedName());
                         var ident = Lookup.findIdentifier(cls);
                         if (nonNull(ident) && nonNull(c) && nonNull(c.getContainingFile())) {
                             var path = cls.getContainingFile().getVirtualFile().getCanonicalPath();
@@ -73,8 +83,8 @@ public class CodeGenAnnotator implements Annotator {
                         }
                     }
                 } else if (element instanceof PsiJavaCodeReferenceElement ref) {
-                    if (Lookup.isGenerated(ref.getQualifiedName())) {
-                        var cls = Lookup.getPrototypeClass(ref.getQualifiedName());
+                    if (Lookup.isGenerated(element.getProject(), ref.getQualifiedName())) {
+                        var cls = Lookup.getPrototypeClass(element.getProject(), ref.getQualifiedName());
                         if (nonNull(cls) && nonNull(cls.getContainingFile())) {
                             var path = cls.getContainingFile().getVirtualFile().getCanonicalPath();
                             var offset = cls.getTextOffset();
@@ -85,10 +95,10 @@ public class CodeGenAnnotator implements Annotator {
                                     .range(range).textAttributes(DefaultLanguageHighlighterColors.KEYWORD).create();
                         }
                     } else {
-                        var data = Lookup.getPrototypeData(ref.getQualifiedName());
+                        var data = Lookup.getPrototypeData(element.getProject(), ref.getQualifiedName());
                         if (nonNull(data)) {
-                            var intf = Lookup.getGeneratedName(ref.getQualifiedName());
-                            var intfCls = Lookup.findClass(intf);
+                            var intf = Lookup.getGeneratedName(element.getProject(), ref.getQualifiedName());
+                            var intfCls = Lookup.findClass(element, intf);
                             if (intfCls.map(PsiElement::getContainingFile).isPresent()) {
                                 if (ref.getParent() instanceof PsiAnnotation || !PROTOTYPE.equals(data.getStrategy())) {
                                     calcGenerationStrategy(element, holder, ref, data);
@@ -101,11 +111,11 @@ public class CodeGenAnnotator implements Annotator {
                                 }
                             }
                         } else {
-                            data = Lookup.isPrototypeAnnotation(ref.getQualifiedName());
+                            data = Lookup.isPrototypeAnnotation(element.getProject(), ref.getQualifiedName());
                             if (nonNull(data)) {
                                 calcGenerationStrategy(element, holder, ref, data);
                             } else if (nonNull(ref.getParent()) && ref.getParent() instanceof PsiAnnotation ann) {
-                                var valid = Lookup.isValidationAnnotation(ann.getQualifiedName());
+                                var valid = Lookup.isValidationAnnotation(element.getProject(), ann.getQualifiedName());
                                 if (nonNull(valid) && valid.isValidationAnnotation()) {
                                     checkForValidationErrors(valid, ref, ann, holder);
                                 }
@@ -119,8 +129,8 @@ public class CodeGenAnnotator implements Annotator {
                                     }
                                 }
                                 var resolved = ref.resolve();
-                                if (resolved instanceof PsiField field && field.getParent() instanceof PsiClass cls && Lookup.isGenerated(cls.getQualifiedName())) {
-                                    with(Lookup.getPrototypeClass(cls.getQualifiedName()), proto ->
+                                if (resolved instanceof PsiField field && field.getParent() instanceof PsiClass cls && Lookup.isGenerated(element.getProject(), cls.getQualifiedName())) {
+                                    with(Lookup.getPrototypeClass(element.getProject(), cls.getQualifiedName()), proto ->
                                                     condition(proto.isEnum(), () ->
                                                             calcEnumTooltip(element, field, holder, cls, proto)));
                                 }
@@ -170,7 +180,7 @@ public class CodeGenAnnotator implements Annotator {
     protected String calcAugments(PsiElement element, PrototypeData proto) {
         var result = new StringBuilder();
         if (element instanceof PsiAnnotatedJavaCodeReferenceElement ref) {
-            var el = Lookup.findClass(ref.getQualifiedName());
+            var el = Lookup.findClass(element, ref.getQualifiedName());
             if (el.isPresent()) {
                 var ann = el.get().getAnnotation("net.binis.codegen.annotation.CodeDocumentation");
                 if (nonNull(ann) && ann.findAttributeValue("value") instanceof PsiLiteralExpression literal && literal.getValue() instanceof String value) {
@@ -215,7 +225,7 @@ public class CodeGenAnnotator implements Annotator {
             var context = field.getInitializer() instanceof PsiMethodCallExpression ? field.getInitializer() : PsiTreeUtil.getChildOfType(field.getInitializer(), PsiMethodCallExpression.class);
             if (nonNull(context)) {
                 with(PsiTreeUtil.getChildOfType(context, PsiExpressionList.class), values -> {
-                    var impl = Lookup.findClass(PsiTreeUtil.getChildOfType((PsiElement) cls.getAnnotation("net.binis.codegen.annotation.Default").getAttributes().get(0), PsiLiteralExpression.class).getValue().toString()).get();
+                    var impl = Lookup.findClass(element, PsiTreeUtil.getChildOfType((PsiElement) cls.getAnnotation("net.binis.codegen.annotation.Default").getAttributes().get(0), PsiLiteralExpression.class).getValue().toString()).get();
                     var paramNames = impl.getConstructors()[0].getParameterList();
                     var expressions = new ArrayList<>(Arrays.asList(values.getExpressions()));
 
@@ -256,7 +266,7 @@ public class CodeGenAnnotator implements Annotator {
                                 with(c.findFieldByName(ctx.getReferenceName(), true), f ->
                                         with(c.getAnnotation("net.binis.codegen.annotation.Generated"), a ->
                                                 with(PsiTreeUtil.getChildOfType((PsiElement) a.getAttributes().get(0), PsiLiteralExpression.class), p ->
-                                                        Lookup.findClass(p.getValue().toString()).ifPresent(pr -> {
+                                                        Lookup.findClass(element, p.getValue().toString()).ifPresent(pr -> {
 
                                                             var ff = f;
                                                             if (!f.hasInitializer()) {
@@ -295,20 +305,9 @@ public class CodeGenAnnotator implements Annotator {
                 with(data.getTargets(), targets -> {
                     var valid = targets.isEmpty();
                     for (var target : targets) {
-                        PsiType targetType = null;
-                        try {
-                            targetType = PsiType.getTypeByName(target, method.getProject(), method.getResolveScope());
-                        } catch (Exception e) {
-                            //Do nothing
-                        }
-                        if (nonNull(targetType) && targetType.isAssignableFrom(method.getReturnType())) {
+                        if (Lookup.isTargetAssignable(target, method.getReturnType(), method)) {
                             valid = true;
                             break;
-                        } else {
-                            if (target.equals(type)) {
-                                valid = true;
-                                break;
-                            }
                         }
                     }
 
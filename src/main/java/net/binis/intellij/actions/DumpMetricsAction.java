@@ -0,0 +1,17 @@
+package net.binis.intellij.actions;
+
+import com.intellij.openapi.project.Project;
+import net.binis.intellij.tools.Metrics;
+
+public class DumpMetricsAction extends SaveJsonAction {
+
+    public DumpMetricsAction() {
+        super("Dump Binis CodeGen Metrics", "Save the collected metrics as JSON", "binis-codegen-metrics.json");
+    }
+
+    @Override
+    protected String toJson(Project project) {
+        return Metrics.toJson(project);
+    }
+
+}
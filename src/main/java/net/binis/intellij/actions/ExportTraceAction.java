@@ -0,0 +1,17 @@
+package net.binis.intellij.actions;
+
+import com.intellij.openapi.project.Project;
+import net.binis.intellij.tools.Trace;
+
+public class ExportTraceAction extends SaveJsonAction {
+
+    public ExportTraceAction() {
+        super("Export Binis CodeGen Trace", "Save the recorded trace events as JSON", "binis-codegen-trace.json");
+    }
+
+    @Override
+    protected String toJson(Project project) {
+        return Trace.toJson();
+    }
+
+}
@@ -0,0 +1,59 @@
+package net.binis.intellij.actions;
+
+import com.intellij.openapi.actionSystem.ActionUpdateThread;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.fileChooser.FileChooserFactory;
+import com.intellij.openapi.fileChooser.FileSaverDescriptor;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static java.util.Objects.nonNull;
+
+/**
+ * Base for the diagnostic actions that save a JSON document chosen by the user.
+ */
+public abstract class SaveJsonAction extends AnAction {
+
+    private static final Logger log = Logger.getInstance(SaveJsonAction.class);
+
+    private final String title;
+    private final String description;
+    private final String fileName;
+
+    protected SaveJsonAction(String title, String description, String fileName) {
+        this.title = title;
+        this.description = description;
+        this.fileName = fileName;
+    }
+
+    protected abstract String toJson(Project project);
+
+    @Override
+    public void actionPerformed(@NotNull AnActionEvent e) {
+        var project = e.getProject();
+        var json = toJson(project);
+        var descriptor = new FileSaverDescriptor(title, description, "json");
+        var wrapper = FileChooserFactory.getInstance().createSaveFileDialog(descriptor, project).save(fileName);
+        if (nonNull(wrapper)) {
+            try {
+                Files.writeString(wrapper.getFile().toPath(), json, StandardCharsets.UTF_8);
+            } catch (IOException ex) {
+                log.warn("Unable to write " + wrapper.getFile(), ex);
+                Messages.showErrorDialog(project, ex.getMessage(), title);
+            }
+        }
+    }
+
+    @Override
+    public @NotNull ActionUpdateThread getActionUpdateThread() {
+        return ActionUpdateThread.BGT;
+    }
+
+}
@@ -3,54 +3,49 @@ package net.binis.intellij.filter;
 import com.intellij.codeInsight.daemon.impl.HighlightInfo;
 import com.intellij.codeInsight.daemon.impl.HighlightInfoFilter;
 import com.intellij.openapi.project.IndexNotReadyException;
+import com.intellij.openapi.util.Key;
 import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
 import com.intellij.psi.util.PsiTreeUtil;
-import com.intellij.psi.util.PsiUtilCore;
 import net.binis.intellij.tools.Binis;
 import net.binis.intellij.tools.Lookup;
+import net.binis.intellij.tools.Metrics;
 import net.binis.intellij.tools.objects.EnricherData;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 
 import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
 
 public class CodeGenHighlightErrorFilter implements HighlightInfoFilter {
 
-    @SuppressWarnings("unchecked")
+    private static final Key<CachedValue<Set<String>>> SUPPRESSIONS = Key.create("binis.highlight.suppressions");
+    private static final Key<CachedValue<ClassRanges>> RANGES = Key.create("binis.highlight.ranges");
+
     @Override
     public boolean accept(@NotNull HighlightInfo highlightInfo, @Nullable PsiFile file) {
+        var start = Metrics.start();
+        try {
+            return doAccept(highlightInfo, file);
+        } finally {
+            Metrics.stop("highlightFilter", start);
+        }
+    }
+
+    protected boolean doAccept(HighlightInfo highlightInfo, PsiFile file) {
         try {
             if (nonNull(highlightInfo.getDescription()) && file instanceof PsiJavaFile java && Binis.isCodeGenUsed(java)) {
-                var element = PsiUtilCore.getElementAtOffset(file, highlightInfo.getStartOffset());
-                var cls = element instanceof PsiClass c ? c : PsiTreeUtil.getParentOfType(element, PsiClass.class);
-
-                if (nonNull(cls)) {
-                    var data = Lookup.getPrototypeData(cls);
-                    if (nonNull(data)) {
-                        var enrichers = (List<EnricherData>) data.getCustom().get("enrichers");
-                        if (nonNull(enrichers)) {
-                            for (var enricher : enrichers) {
-                                if (nonNull(enricher.getParamsSuppresses()) && nonNull(enricher.getFilter())) {
-                                    for (var par : enricher.getFilter().apply(cls).toList()) {
-                                        var suppress = highlightInfo.getDescription().equals(enricher.getParamsSuppresses()
-                                                .params(Map.of(
-                                                        "name", par.getName(),
-                                                        "type", par.getType().getCanonicalText()))
-                                                .interpolate());
-                                        if (suppress) {
-                                            return false;
-                                        }
-                                    }
-                                }
-                            }
-                        }
-                    }
+                var cls = getClassRanges(java).find(highlightInfo.getStartOffset());
+
+                if (nonNull(cls) && getSuppressions(cls).contains(highlightInfo.getDescription())) {
+                    return false;
                 }
 
                 return isNull(cls) || !cls.isAnnotationType() || !"'extends' not allowed on @interface".equals(highlightInfo.getDescription());
@@ -60,4 +55,79 @@ public class CodeGenHighlightErrorFilter implements HighlightInfoFilter {
         }
         return true;
     }
+
+    protected static ClassRanges getClassRanges(PsiJavaFile file) {
+        return CachedValuesManager.getCachedValue(file, RANGES, () ->
+                CachedValueProvider.Result.create(ClassRanges.of(file), file));
+    }
+
+    protected static Set<String> getSuppressions(PsiClass cls) {
+        return CachedValuesManager.getCachedValue(cls, SUPPRESSIONS, () ->
+                CachedValueProvider.Result.create(buildSuppressions(cls), cls, PsiModificationTracker.getInstance(cls.getProject())));
+    }
+
+    @SuppressWarnings("unchecked")
+    protected static Set<String> buildSuppressions(PsiClass cls) {
+        var data = Lookup.getPrototypeData(cls);
+        if (isNull(data)) {
+            return Collections.emptySet();
+        }
+
+        var enrichers = (List<EnricherData>) data.getCustom().get("enrichers");
+        if (isNull(enrichers)) {
+            return Collections.emptySet();
+        }
+
+        var result = new HashSet<String>();
+        for (var enricher : enrichers) {
+            if (nonNull(enricher.getParamsSuppresses()) && nonNull(enricher.getFilter())) {
+                for (var par : enricher.getFilter().apply(cls)) {
+                    result.add(enricher.getParamsSuppresses()
+                            .params(Map.of(
+                                    "name", par.getName(),
+                                    "type", par.getType().getCanonicalText()))
+                            .interpolate());
+                }
+            }
+        }
+        return result.isEmpty() ? Collections.emptySet() : Set.copyOf(result);
+    }
+
+    protected record ClassRanges(int[] starts, int[] ends, int[] parents, PsiClass[] classes) {
+
+        public static ClassRanges of(PsiJavaFile file) {
+            var list = new ArrayList<>(PsiTreeUtil.findChildrenOfType(file, PsiClass.class));
+            list.sort(Comparator.comparingInt(c -> c.getTextRange().getStartOffset()));
+            var size = list.size();
+            var starts = new int[size];
+            var ends = new int[size];
+            var parents = new int[size];
+            for (var i = 0; i < size; i++) {
+                var range = list.get(i).getTextRange();
+                starts[i] = range.getStartOffset();
+                ends[i] = range.getEndOffset();
+                var parent = i - 1;
+                while (parent >= 0 && ends[parent] < ends[i]) {
+                    parent = parents[parent];
+                }
+                parents[i] = parent;
+            }
+            return new ClassRanges(starts, ends, parents, list.toArray(PsiClass[]::new));
+        }
+
+        public PsiClass find(int offset) {
+            var idx = Arrays.binarySearch(starts, offset);
+            if (idx < 0) {
+                idx = -idx - 2;
+            } else {
+                while (idx + 1 < starts.length && starts[idx + 1] == offset) {
+                    idx++;
+                }
+            }
+            while (idx >= 0 && offset >= ends[idx]) {
+                idx = parents[idx];
+            }
+            return idx >= 0 ? classes[idx] : null;
+        }
+    }
 }
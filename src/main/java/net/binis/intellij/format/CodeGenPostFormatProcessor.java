@@ -10,6 +10,7 @@ import com.intellij.psi.impl.source.codeStyle.PostFormatProcessor;
 import com.intellij.psi.util.PsiTreeUtil;
 import net.binis.codegen.tools.Reflection;
 import net.binis.intellij.CodeGenAnnotator;
+import net.binis.intellij.tools.Metrics;
 import org.jetbrains.annotations.NotNull;
 
 import java.lang.reflect.Method;
@@ -31,6 +32,15 @@ public class CodeGenPostFormatProcessor implements PostFormatProcessor {
 
     @Override
     public @NotNull TextRange processText(@NotNull PsiFile file, @NotNull TextRange range, @NotNull CodeStyleSettings settings) {
+        var start = Metrics.start();
+        try {
+            return doProcessText(file, range, settings);
+        } finally {
+            Metrics.stop("postFormatProcessor", start);
+        }
+    }
+
+    protected TextRange doProcessText(PsiFile file, TextRange range, CodeStyleSettings settings) {
         if (range.getLength() == file.getTextLength()) {
             var project = file.getProject();
             var document = PsiDocumentManager.getInstance(file.getProject()).getDocument(file);
@@ -0,0 +1,82 @@
+package net.binis.intellij.index;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.indexing.*;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import net.binis.codegen.discovery.Discoverer;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static java.util.Objects.nonNull;
+
+public class AnnotationsIndex extends FileBasedIndexExtension<String, String> {
+
+    public static final ID<String, String> NAME = ID.create("net.binis.codegen.annotations");
+
+    public static String find(Project project, String name) {
+        var result = new String[1];
+        FileBasedIndex.getInstance().processValues(NAME, name, null, (file, type) -> {
+            result[0] = type;
+            return false;
+        }, GlobalSearchScope.allScope(project));
+        return result[0];
+    }
+
+    public static boolean isTemplate(Project project, String name) {
+        return Discoverer.TEMPLATE.equals(find(project, name));
+    }
+
+    /**
+     * Annotations declared by the binis/annotations resource under the given root, or null if the root has none.
+     */
+    public static Map<String, String> findInRoot(Project project, VirtualFile root) {
+        var file = root.findFileByRelativePath("binis/annotations");
+        return nonNull(file) ? FileBasedIndex.getInstance().getFileData(NAME, file, project) : null;
+    }
+
+    @Override
+    public @NotNull ID<String, String> getName() {
+        return NAME;
+    }
+
+    @Override
+    public @NotNull DataIndexer<String, String, FileContent> getIndexer() {
+        return input -> {
+            var result = new HashMap<String, String>();
+            Discoverer.findAnnotations(input.getContentAsText().toString())
+                    .forEach(d -> result.put(d.getName(), d.getType()));
+            return result;
+        };
+    }
+
+    @Override
+    public @NotNull KeyDescriptor<String> getKeyDescriptor() {
+        return EnumeratorStringDescriptor.INSTANCE;
+    }
+
+    @Override
+    public @NotNull DataExternalizer<String> getValueExternalizer() {
+        return EnumeratorStringDescriptor.INSTANCE;
+    }
+
+    @Override
+    public int getVersion() {
+        return 1;
+    }
+
+    @Override
+    public FileBasedIndex.@NotNull InputFilter getInputFilter() {
+        return file -> !file.isDirectory() && "annotations".equals(file.getName()) && nonNull(file.getParent()) && "binis".equals(file.getParent().getName());
+    }
+
+    @Override
+    public boolean dependsOnFileContent() {
+        return true;
+    }
+}
@@ -0,0 +1,89 @@
+package net.binis.intellij.index;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.indexing.*;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.IOUtil;
+import com.intellij.util.io.KeyDescriptor;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+public class GeneratedByIndex extends FileBasedIndexExtension<String, List<String>> {
+
+    public static final ID<String, List<String>> NAME = ID.create("net.binis.codegen.generatedBy");
+
+    public static List<String> find(Project project, String prototype) {
+        var result = new ArrayList<String>();
+        FileBasedIndex.getInstance().processValues(NAME, prototype, null, (file, generated) -> {
+            result.addAll(generated);
+            return true;
+        }, GlobalSearchScope.allScope(project));
+        return result;
+    }
+
+    @Override
+    public @NotNull ID<String, List<String>> getName() {
+        return NAME;
+    }
+
+    @Override
+    public @NotNull DataIndexer<String, List<String>, FileContent> getIndexer() {
+        return input -> {
+            var result = new HashMap<String, List<String>>();
+            GeneratedIndex.collect(input).forEach((generated, prototype) ->
+                    result.computeIfAbsent(prototype, k -> new ArrayList<>()).add(generated));
+            return result;
+        };
+    }
+
+    @Override
+    public @NotNull KeyDescriptor<String> getKeyDescriptor() {
+        return EnumeratorStringDescriptor.INSTANCE;
+    }
+
+    @Override
+    public @NotNull DataExternalizer<List<String>> getValueExternalizer() {
+        return new DataExternalizer<>() {
+            @Override
+            public void save(@NotNull DataOutput out, List<String> value) throws IOException {
+                out.writeInt(value.size());
+                for (var name : value) {
+                    IOUtil.writeUTF(out, name);
+                }
+            }
+
+            @Override
+            public List<String> read(@NotNull DataInput in) throws IOException {
+                var size = in.readInt();
+                var result = new ArrayList<String>(size);
+                for (var i = 0; i < size; i++) {
+                    result.add(IOUtil.readUTF(in));
+                }
+                return result;
+            }
+        };
+    }
+
+    @Override
+    public int getVersion() {
+        return 2;
+    }
+
+    @Override
+    public FileBasedIndex.@NotNull InputFilter getInputFilter() {
+        return GeneratedIndex.inputFilter();
+    }
+
+    @Override
+    public boolean dependsOnFileContent() {
+        return true;
+    }
+}
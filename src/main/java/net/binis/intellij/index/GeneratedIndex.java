@@ -0,0 +1,131 @@
+package net.binis.intellij.index;
+
+import com.intellij.ide.highlighter.JavaFileType;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.ArchiveFileSystem;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.PsiLiteralExpression;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.indexing.*;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+public class GeneratedIndex extends FileBasedIndexExtension<String, String> {
+
+    public static final ID<String, String> NAME = ID.create("net.binis.codegen.generated");
+
+    protected static final String CODEGEN_GENERATED = "net.binis.codegen.annotation.Generated";
+    protected static final String JAVAX_GENERATED = "javax.annotation.processing.Generated";
+
+    private static final Key<Map<String, String>> COLLECTED = Key.create("binis.codegen.generated.collected");
+
+    public record IndexedGenerated(VirtualFile file, String prototype) {}
+
+    public static IndexedGenerated find(Project project, String name) {
+        var result = new IndexedGenerated[1];
+        FileBasedIndex.getInstance().processValues(NAME, name, null, (file, prototype) -> {
+            result[0] = new IndexedGenerated(file, prototype);
+            return false;
+        }, GlobalSearchScope.allScope(project));
+        return result[0];
+    }
+
+    /**
+     * Generated classes of the file mapped to their prototypes. Shared by both generated indexes, so the result is kept
+     * on the indexed content and the file is scanned once.
+     */
+    public static Map<String, String> collect(FileContent input) {
+        var result = input.getUserData(COLLECTED);
+        if (isNull(result)) {
+            result = doCollect(input);
+            input.putUserData(COLLECTED, result);
+        }
+        return result;
+    }
+
+    protected static Map<String, String> doCollect(FileContent input) {
+        var result = new HashMap<String, String>();
+        if (StringUtil.contains(input.getContentAsText(), "Generated") && input.getPsiFile() instanceof PsiJavaFile file) {
+            //Generated annotations sit on type declarations only, so method bodies aren't walked
+            var classes = new ArrayDeque<>(List.of(file.getClasses()));
+            while (!classes.isEmpty()) {
+                var cls = classes.poll();
+                classes.addAll(List.of(cls.getInnerClasses()));
+                var name = cls.getQualifiedName();
+                var list = cls.getModifierList();
+                if (nonNull(name) && nonNull(list)) {
+                    for (var ann : list.getAnnotations()) {
+                        var ref = ann.getNameReferenceElement();
+                        if (nonNull(ref) && "Generated".equals(ref.getReferenceName())) {
+                            var names = PrototypeIndex.candidateNames(file, ref.getText().replaceAll("\\s", ""));
+                            var attribute = names.contains(CODEGEN_GENERATED) ? "by" : names.contains(JAVAX_GENERATED) ? "value" : null;
+                            if (nonNull(attribute) && ann.findDeclaredAttributeValue(attribute) instanceof PsiLiteralExpression exp && exp.getValue() instanceof String proto) {
+                                result.put(name, proto);
+                                break;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    public static FileBasedIndex.InputFilter inputFilter() {
+        return new DefaultFileTypeSpecificInputFilter(JavaFileType.INSTANCE) {
+            @Override
+            public boolean acceptInput(@NotNull VirtualFile file) {
+                //Generated sources only matter in the project, skip sources attached from jars and src.zip
+                return super.acceptInput(file) && !(file.getFileSystem() instanceof ArchiveFileSystem);
+            }
+        };
+    }
+
+    @Override
+    public @NotNull ID<String, String> getName() {
+        return NAME;
+    }
+
+    @Override
+    public @NotNull DataIndexer<String, String, FileContent> getIndexer() {
+        return GeneratedIndex::collect;
+    }
+
+    @Override
+    public @NotNull KeyDescriptor<String> getKeyDescriptor() {
+        return EnumeratorStringDescriptor.INSTANCE;
+    }
+
+    @Override
+    public @NotNull DataExternalizer<String> getValueExternalizer() {
+        return EnumeratorStringDescriptor.INSTANCE;
+    }
+
+    @Override
+    public int getVersion() {
+        return 2;
+    }
+
+    @Override
+    public FileBasedIndex.@NotNull InputFilter getInputFilter() {
+        return inputFilter();
+    }
+
+    @Override
+    public boolean dependsOnFileContent() {
+        return true;
+    }
+}
@@ -0,0 +1,220 @@
+package net.binis.intellij.index;
+
+import com.intellij.ide.highlighter.JavaFileType;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.ArchiveFileSystem;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.*;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.indexing.*;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.IOUtil;
+import com.intellij.util.io.KeyDescriptor;
+import net.binis.intellij.tools.objects.TemplateSnapshot;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.*;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static net.binis.codegen.tools.Tools.with;
+
+public class PrototypeIndex extends FileBasedIndexExtension<String, List<PrototypeIndex.Entry>> {
+
+    public static final ID<String, List<Entry>> NAME = ID.create("net.binis.codegen.prototypes");
+
+    public record Entry(List<String> names, Map<String, TemplateSnapshot.Value> attributes, boolean literal) {}
+
+    public record IndexedClass(VirtualFile file, List<Entry> entries) {}
+
+    protected static final Set<String> SKIPPED_ANNOTATIONS = Set.of("interface", "Override", "SuppressWarnings", "Deprecated", "FunctionalInterface", "SafeVarargs");
+
+    public static IndexedClass find(Project project, String name) {
+        var result = new IndexedClass[1];
+        FileBasedIndex.getInstance().processValues(NAME, name, null, (file, entries) -> {
+            result[0] = new IndexedClass(file, entries);
+            return false;
+        }, GlobalSearchScope.allScope(project));
+        return result[0];
+    }
+
+    @Override
+    public @NotNull ID<String, List<Entry>> getName() {
+        return NAME;
+    }
+
+    @Override
+    public @NotNull DataIndexer<String, List<Entry>, FileContent> getIndexer() {
+        return input -> {
+            var result = new HashMap<String, List<Entry>>();
+            if (hasCandidateAnnotations(input.getContentAsText()) && input.getPsiFile() instanceof PsiJavaFile file) {
+                for (var cls : PsiTreeUtil.findChildrenOfType(file, PsiClass.class)) {
+                    var name = cls.getQualifiedName();
+                    if (nonNull(name)) {
+                        var entries = new ArrayList<Entry>();
+                        with(cls.getModifierList(), list -> {
+                            for (var ann : list.getAnnotations()) {
+                                var entry = readEntry(file, ann);
+                                if (nonNull(entry)) {
+                                    entries.add(entry);
+                                }
+                            }
+                        });
+                        if (!entries.isEmpty()) {
+                            result.put(name, entries);
+                        }
+                    }
+                }
+            }
+            return result;
+        };
+    }
+
+    /**
+     * Cheap text scan run before building PSI, true if the file has any annotation other than the common JDK ones.
+     */
+    protected static boolean hasCandidateAnnotations(CharSequence text) {
+        var length = text.length();
+        for (var i = 0; i < length; i++) {
+            if (text.charAt(i) == '@') {
+                var start = i + 1;
+                while (start < length && Character.isWhitespace(text.charAt(start))) {
+                    start++;
+                }
+                var end = start;
+                while (end < length && (Character.isJavaIdentifierPart(text.charAt(end)) || text.charAt(end) == '.')) {
+                    end++;
+                }
+                if (end > start && !SKIPPED_ANNOTATIONS.contains(text.subSequence(start, end).toString())) {
+                    return true;
+                }
+                i = end - 1;
+            }
+        }
+        return false;
+    }
+
+    protected static Entry readEntry(PsiJavaFile file, PsiAnnotation ann) {
+        var ref = ann.getNameReferenceElement();
+        if (isNull(ref)) {
+            return null;
+        }
+
+        var literal = true;
+        var attributes = new LinkedHashMap<String, TemplateSnapshot.Value>();
+        for (var pair : ann.getParameterList().getAttributes()) {
+            var attribute = nonNull(pair.getName()) ? pair.getName() : "value";
+            var value = pair.getValue();
+            if (value instanceof PsiLiteralExpression exp && nonNull(exp.getValue())) {
+                attributes.put(attribute, TemplateSnapshot.Value.of(exp.getValue()));
+            } else if ("strategy".equals(attribute) && value instanceof PsiReferenceExpression exp && nonNull(exp.getReferenceName())) {
+                attributes.put(attribute, TemplateSnapshot.Value.of(exp.getReferenceName()));
+            } else {
+                literal = false;
+            }
+        }
+
+        return new Entry(candidateNames(file, ref.getText().replaceAll("\\s", "")), attributes, literal);
+    }
+
+    public static List<String> candidateNames(PsiJavaFile file, String name) {
+        if (name.contains(".")) {
+            return List.of(name);
+        }
+
+        var result = new ArrayList<String>();
+        var imports = file.getImportList();
+        if (nonNull(imports)) {
+            var single = imports.findSingleImportStatement(name);
+            if (nonNull(single) && nonNull(single.getQualifiedName())) {
+                return List.of(single.getQualifiedName());
+            }
+            for (var statement : imports.getImportStatements()) {
+                if (statement.isOnDemand() && nonNull(statement.getQualifiedName())) {
+                    result.add(statement.getQualifiedName() + "." + name);
+                }
+            }
+        }
+        result.add(file.getPackageName().isEmpty() ? name : file.getPackageName() + "." + name);
+        return result;
+    }
+
+    @Override
+    public @NotNull KeyDescriptor<String> getKeyDescriptor() {
+        return EnumeratorStringDescriptor.INSTANCE;
+    }
+
+    @Override
+    public @NotNull DataExternalizer<List<Entry>> getValueExternalizer() {
+        return new DataExternalizer<>() {
+            @Override
+            public void save(@NotNull DataOutput out, List<Entry> value) throws IOException {
+                out.writeInt(value.size());
+                for (var entry : value) {
+                    out.writeInt(entry.names().size());
+                    for (var name : entry.names()) {
+                        IOUtil.writeUTF(out, name);
+                    }
+                    out.writeInt(entry.attributes().size());
+                    //Only non-null scalar literals are indexed, a value is fully described by its type and text
+                    for (var attr : entry.attributes().entrySet()) {
+                        IOUtil.writeUTF(out, attr.getKey());
+                        IOUtil.writeUTF(out, attr.getValue().getType());
+                        IOUtil.writeUTF(out, attr.getValue().getText());
+                    }
+                    out.writeBoolean(entry.literal());
+                }
+            }
+
+            @Override
+            public List<Entry> read(@NotNull DataInput in) throws IOException {
+                var size = in.readInt();
+                var result = new ArrayList<Entry>(size);
+                for (var i = 0; i < size; i++) {
+                    var namesSize = in.readInt();
+                    var names = new ArrayList<String>(namesSize);
+                    for (var j = 0; j < namesSize; j++) {
+                        names.add(IOUtil.readUTF(in));
+                    }
+                    var attrSize = in.readInt();
+                    var attributes = new LinkedHashMap<String, TemplateSnapshot.Value>();
+                    for (var j = 0; j < attrSize; j++) {
+                        var key = IOUtil.readUTF(in);
+                        var value = new TemplateSnapshot.Value();
+                        value.setType(IOUtil.readUTF(in));
+                        value.setText(IOUtil.readUTF(in));
+                        attributes.put(key, value);
+                    }
+                    result.add(new Entry(names, attributes, in.readBoolean()));
+                }
+                return result;
+            }
+        };
+    }
+
+    @Override
+    public int getVersion() {
+        return 3;
+    }
+
+    @Override
+    public FileBasedIndex.@NotNull InputFilter getInputFilter() {
+        return new DefaultFileTypeSpecificInputFilter(JavaFileType.INSTANCE) {
+            @Override
+            public boolean acceptInput(@NotNull VirtualFile file) {
+                //Library sources and src.zip are served through PSI, only loose source files are indexed
+                return super.acceptInput(file) && !(file.getFileSystem() instanceof ArchiveFileSystem);
+            }
+        };
+    }
+
+    @Override
+    public boolean dependsOnFileContent() {
+        return true;
+    }
+}
@@ -44,7 +44,7 @@ public class PrototypeUsedInspection extends AbstractBaseJavaLocalInspectionTool
         if (Binis.isCodeGenUsed(element)) {
             var cls = PsiTreeUtil.getParentOfType(element, PsiClass.class);
             if (nonNull(cls) && nonNull(cls.getQualifiedName())) {
-                return !Lookup.isPrototype(cls.getQualifiedName());
+                return !Lookup.isPrototype(element.getProject(), cls.getQualifiedName());
             }
         }
 
@@ -53,7 +53,7 @@ public class PrototypeUsedInspection extends AbstractBaseJavaLocalInspectionTool
 
     protected void checkForError(PsiElement element, String cls, ProblemsHolder holder) {
         if (!(element.getParent() instanceof PsiAnnotation)) {
-            var data = Lookup.getPrototypeData(cls);
+            var data = Lookup.getPrototypeData(element.getProject(), cls);
             if (nonNull(data) && GenerationStrategy.PROTOTYPE.equals(data.getStrategy())) {
                 holder.registerProblem(element,
                         InspectionBundle.message("inspection.binis.codegen.problem.descriptor"),
@@ -81,7 +81,7 @@ public class PrototypeUsedInspection extends AbstractBaseJavaLocalInspectionTool
 
             if (element instanceof PsiJavaCodeReferenceElement type) {
                 var name = type.getQualifiedName();
-                Lookup.findClass(Lookup.getGeneratedName(name)).ifPresent(c ->
+                Lookup.findClass(element, Lookup.getGeneratedName(project, name)).ifPresent(c ->
                     type.replace(factory.createClassReferenceElement(c)));
             }
         }
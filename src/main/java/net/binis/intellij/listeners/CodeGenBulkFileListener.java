@@ -8,7 +8,7 @@ import com.intellij.openapi.module.Module;
 import com.intellij.openapi.progress.ProcessCanceledException;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.vfs.newvfs.BulkFileListener;
-import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import com.intellij.openapi.vfs.newvfs.events.*;
 import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiManager;
 import com.intellij.psi.util.PsiTreeUtil;
@@ -33,9 +33,14 @@ public class CodeGenBulkFileListener implements BulkFileListener {
     @Override
     public void after(List<? extends VFileEvent> events) {
         try {
+            if (events.stream().anyMatch(CodeGenBulkFileListener::isClassAdded)) {
+                Lookup.clearMissingClasses(project);
+            }
+
             var modules = new HashSet<Module>();
+            //Editor changes are picked up lazily through the PSI modification stamps, only external changes are handled here
             events.stream()
-                    .filter(VFileEvent::isFromSave)
+                    .filter(e -> !e.isFromSave())
                     .forEach(e -> {
                         if (nonNull(e.getFile()) && JavaFileType.INSTANCE.equals(e.getFile().getFileType())) {
                             modules.addAll(Lookup.refreshCache(project, e.getFile()));
@@ -50,4 +55,16 @@ public class CodeGenBulkFileListener implements BulkFileListener {
             log.warn("Failed to process file events", e);
         }
     }
+
+    protected static boolean isClassAdded(VFileEvent event) {
+        if (event instanceof VFileContentChangeEvent) {
+            var path = event.getPath();
+            return path.endsWith(".class") || path.endsWith(".jar");
+        }
+        if (event instanceof VFileCreateEvent || event instanceof VFileCopyEvent || event instanceof VFileMoveEvent || (event instanceof VFilePropertyChangeEvent e && e.isRename())) {
+            var path = event.getPath();
+            return path.endsWith(".java") || path.endsWith(".class") || path.endsWith(".jar");
+        }
+        return false;
+    }
 }
@@ -1,17 +1,15 @@
 package net.binis.intellij.listeners;
 
-import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.fileEditor.FileEditorManager;
 import com.intellij.openapi.fileEditor.FileEditorManagerListener;
 import com.intellij.openapi.vfs.VirtualFile;
+import net.binis.intellij.tools.Trace;
 
 public class CodeGenFileEditorManagerListener implements FileEditorManagerListener {
 
-    private static final Logger log = Logger.getInstance(CodeGenFileEditorManagerListener.class);
-
     @Override
     public void fileClosed(FileEditorManager source, VirtualFile file) {
-        log.info("File closed: " + file.getName());
+        Trace.event("fileClosed", file.getName());
     }
 
-}
\ No newline at end of file
+}
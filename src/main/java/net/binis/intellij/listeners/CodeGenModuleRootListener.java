@@ -0,0 +1,20 @@
+package net.binis.intellij.listeners;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ModuleRootEvent;
+import com.intellij.openapi.roots.ModuleRootListener;
+import net.binis.intellij.tools.Lookup;
+
+public class CodeGenModuleRootListener implements ModuleRootListener {
+
+    private final Project project;
+
+    public CodeGenModuleRootListener(Project project) {
+        this.project = project;
+    }
+
+    @Override
+    public void rootsChanged(ModuleRootEvent event) {
+        Lookup.clearMissingClasses(project);
+    }
+}
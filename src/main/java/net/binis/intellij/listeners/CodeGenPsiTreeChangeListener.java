@@ -0,0 +1,56 @@
+package net.binis.intellij.listeners;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.*;
+import net.binis.intellij.tools.Lookup;
+
+/**
+ * Drops the missing classes cache when a class appears, gets renamed or moves. Edits inside class bodies are ignored.
+ */
+public class CodeGenPsiTreeChangeListener extends PsiTreeChangeAdapter {
+
+    private final Project project;
+
+    public CodeGenPsiTreeChangeListener(Project project) {
+        this.project = project;
+    }
+
+    @Override
+    public void childAdded(PsiTreeChangeEvent event) {
+        check(event.getChild());
+    }
+
+    @Override
+    public void childReplaced(PsiTreeChangeEvent event) {
+        check(event.getNewChild());
+    }
+
+    @Override
+    public void childMoved(PsiTreeChangeEvent event) {
+        check(event.getChild());
+    }
+
+    @Override
+    public void childrenChanged(PsiTreeChangeEvent event) {
+        //Top level reparse, classes might have been added or renamed
+        if (event.getParent() instanceof PsiJavaFile) {
+            Lookup.clearMissingClasses(project);
+        }
+    }
+
+    @Override
+    public void propertyChanged(PsiTreeChangeEvent event) {
+        var property = event.getPropertyName();
+        if (PsiTreeChangeEvent.PROP_FILE_NAME.equals(property) || PsiTreeChangeEvent.PROP_DIRECTORY_NAME.equals(property)) {
+            Lookup.clearMissingClasses(project);
+        }
+    }
+
+    protected void check(PsiElement element) {
+        if (element instanceof PsiClass || element instanceof PsiJavaFile || element instanceof PsiDirectory || element instanceof PsiPackageStatement
+                || (element instanceof PsiIdentifier && element.getParent() instanceof PsiClass)
+                || (element instanceof PsiJavaCodeReferenceElement && element.getParent() instanceof PsiPackageStatement)) {
+            Lookup.clearMissingClasses(project);
+        }
+    }
+}
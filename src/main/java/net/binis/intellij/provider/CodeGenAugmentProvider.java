@@ -18,6 +18,7 @@ import net.binis.codegen.generation.core.Helpers;
 import net.binis.intellij.CodeGenAnnotator;
 import net.binis.intellij.tools.Binis;
 import net.binis.intellij.tools.Lookup;
+import net.binis.intellij.tools.Metrics;
 import net.binis.intellij.tools.objects.EnricherData;
 import org.apache.commons.lang3.StringUtils;
 import org.jetbrains.annotations.NotNull;
@@ -39,12 +40,21 @@ public class CodeGenAugmentProvider extends PsiAugmentProvider {
     protected static final ThreadLocal<Set<PsiElement>> _augmenting = new ThreadLocal<>();
 
 
-    @SuppressWarnings("unchecked")
     @NotNull
     @Override
     public <Psi extends PsiElement> List<Psi> getAugments(@NotNull PsiElement element,
                                                           @NotNull final Class<Psi> type,
                                                           @Nullable String nameHint) {
+        var start = Metrics.start();
+        try {
+            return doGetAugments(element, type, nameHint);
+        } finally {
+            Metrics.stop("augmentProvider", start);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    protected <Psi extends PsiElement> List<Psi> doGetAugments(PsiElement element, Class<Psi> type, String nameHint) {
         List<PsiElement> result = new ArrayList<>();
         try {
             if (!DumbService.isDumb(element.getProject()) && Binis.isCodeGenUsed(element) && !Lookup.getRegisteringTemplate()) {
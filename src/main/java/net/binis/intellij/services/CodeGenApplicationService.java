@@ -0,0 +1,108 @@
+package net.binis.intellij.services;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.components.PersistentStateComponent;
+import com.intellij.openapi.components.State;
+import com.intellij.openapi.components.Storage;
+import com.intellij.openapi.components.StoragePathMacros;
+import com.intellij.openapi.vfs.VirtualFile;
+import lombok.Data;
+import net.binis.intellij.tools.Trace;
+import net.binis.intellij.tools.objects.InFlight;
+import net.binis.intellij.tools.objects.TemplateSnapshot;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import static java.util.Objects.nonNull;
+
+@State(name = "BinisCodeGenTemplates", storages = @Storage(StoragePathMacros.CACHE_FILE))
+public class CodeGenApplicationService implements PersistentStateComponent<CodeGenApplicationService.TemplatesState> {
+
+    private static final int MAX_JARS = 200;
+
+    private final InFlight<String, TemplateSnapshot> snapshots = new InFlight<>();
+    private volatile Map<String, JarTemplates> jars = new ConcurrentHashMap<>();
+
+    public static CodeGenApplicationService getInstance() {
+        return ApplicationManager.getApplication().getService(CodeGenApplicationService.class);
+    }
+
+    public TemplateSnapshot getTemplate(String jarKey, String name, Supplier<TemplateSnapshot> supplier) {
+        var jar = jars.computeIfAbsent(jarKey, k -> new JarTemplates());
+        jar.setLastUsed(System.currentTimeMillis());
+        var result = jar.getTemplates().get(name);
+        if (nonNull(result)) {
+            Trace.event("templateSnapshot", name);
+            return result;
+        }
+
+        return snapshots.compute(jarKey + "!" + name, () -> {
+            var existing = jar.getTemplates().get(name);
+            if (nonNull(existing)) {
+                return existing;
+            }
+            var snapshot = supplier.get();
+            if (nonNull(snapshot)) {
+                jar.getTemplates().put(name, snapshot);
+                prune();
+            }
+            return snapshot;
+        }, null);
+    }
+
+    /**
+     * Identifies a jar by its path, timestamp and length, so unchanged jars keep their snapshots between sessions.
+     */
+    public String key(VirtualFile jar) {
+        return jar.getPath() + "@" + jar.getTimeStamp() + ":" + jar.getLength();
+    }
+
+    protected void prune() {
+        var current = jars;
+        while (current.size() > MAX_JARS) {
+            current.entrySet().stream()
+                    .min(Map.Entry.comparingByValue((a, b) -> Long.compare(a.getLastUsed(), b.getLastUsed())))
+                    .ifPresent(e -> current.remove(e.getKey()));
+        }
+    }
+
+    @Override
+    public TemplatesState getState() {
+        var state = new TemplatesState();
+        jars.forEach((key, jar) -> {
+            var copy = new JarTemplates();
+            copy.setLastUsed(jar.getLastUsed());
+            copy.setTemplates(new HashMap<>(jar.getTemplates()));
+            state.getJars().put(key, copy);
+        });
+        return state;
+    }
+
+    @Override
+    public void loadState(@NotNull TemplatesState state) {
+        var loaded = new ConcurrentHashMap<String, JarTemplates>();
+        state.getJars().forEach((key, jar) -> {
+            var copy = new JarTemplates();
+            copy.setLastUsed(jar.getLastUsed());
+            copy.getTemplates().putAll(jar.getTemplates());
+            loaded.put(key, copy);
+        });
+        jars = loaded;
+    }
+
+    @Data
+    public static class TemplatesState {
+        private Map<String, JarTemplates> jars = new HashMap<>();
+    }
+
+    @Data
+    public static class JarTemplates {
+        private volatile long lastUsed;
+        private Map<String, TemplateSnapshot> templates = new ConcurrentHashMap<>();
+    }
+
+}
@@ -1,21 +1,182 @@
 package net.binis.intellij.services;
 
+import com.intellij.openapi.Disposable;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.fileEditor.FileEditorManagerListener;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ModuleRootListener;
+import com.intellij.openapi.util.registry.Registry;
+import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import lombok.AccessLevel;
+import lombok.Getter;
+import net.binis.codegen.generation.core.interfaces.PrototypeData;
 import net.binis.intellij.listeners.CodeGenBulkFileListener;
 import net.binis.intellij.listeners.CodeGenFileEditorManagerListener;
+import net.binis.intellij.listeners.CodeGenModuleRootListener;
+import net.binis.intellij.listeners.CodeGenPsiTreeChangeListener;
+import net.binis.intellij.tools.Lookup;
+import net.binis.intellij.tools.objects.EnricherData;
+import net.binis.intellij.tools.objects.FileStamp;
+import net.binis.intellij.tools.objects.InFlight;
+import net.binis.intellij.tools.objects.LookupCache;
 
-public class CodeGenProjectService {
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+import static java.util.Objects.nonNull;
+import static net.binis.codegen.generation.core.Structures.PrototypeDataHandler;
+
+@Getter
+public class CodeGenProjectService implements Disposable {
 
     private static final Logger log = Logger.getInstance(CodeGenProjectService.class);
+    public static final String CACHE_SIZE_KEY = "binis.codegen.lookup.cache.size";
+    private static final IntSupplier CACHE_SIZE = () -> Registry.intValue(CACHE_SIZE_KEY, 10000);
+
+    private final Project project;
+    private final LookupCache<String, Lookup.LookupDescription> classes = new LookupCache<String, Lookup.LookupDescription>("classes", true, CACHE_SIZE).onEviction(this::evicted);
+    private final Map<String, PrototypeData> prototypes = new ConcurrentHashMap<>();
+    private final Set<String> nonTemplates = ConcurrentHashMap.newKeySet();
+    private final LookupCache<String, String> generated = new LookupCache<String, String>("generated", false, CACHE_SIZE).onEviction(this::evicted);
+    @Getter(AccessLevel.NONE)
+    private final LookupCache<String, Boolean> nonGeneratedCache = new LookupCache<String, Boolean>("nonGenerated", false, CACHE_SIZE).onEviction(this::evicted);
+    private final Set<String> nonGenerated = Collections.newSetFromMap(nonGeneratedCache);
+    private final LookupCache<String, Lookup.ValidationDescription> validators = new LookupCache<String, Lookup.ValidationDescription>("validators", false, CACHE_SIZE).onEviction(this::evicted);
+    private final Map<String, Supplier<PrototypeDataHandler.PrototypeDataHandlerBuilder>> defaultProperties = new ConcurrentHashMap<>();
+    private final LookupCache<String, EnricherData> enrichers = new LookupCache<String, EnricherData>("enrichers", false, CACHE_SIZE).onEviction(this::evicted);
+    private final LookupCache<String, String> generatedNames = new LookupCache<String, String>("generatedNames", false, CACHE_SIZE).onEviction(this::generatedNameEvicted);
+    private final LookupCache<String, String> prototypeNames = new LookupCache<String, String>("prototypeNames", false, CACHE_SIZE).onEviction(this::prototypeNameEvicted);
+    @Getter(AccessLevel.NONE)
+    private final LookupCache<String, Boolean> missingClassesCache = new LookupCache<>("missingClasses", false, CACHE_SIZE);
+    private final Set<String> missingClasses = Collections.newSetFromMap(missingClassesCache);
+    private final Map<String, Set<String>> dependents = new ConcurrentHashMap<>();
+    private final CachedValue<Map<Lookup.TargetKey, Boolean>> assignability;
+    @Getter(AccessLevel.NONE)
+    private final Map<String, FileStamp> stamps = new ConcurrentHashMap<>();
+    @Getter(AccessLevel.NONE)
+    private final Map<VirtualFile, Set<String>> stamped = new ConcurrentHashMap<>();
+    private final InFlight<String, Void> registrations = new InFlight<>();
+    private final InFlight<String, PrototypeData> discoveries = new InFlight<>();
+    private final InFlight<String, Lookup.ValidationDescription> validations = new InFlight<>();
 
     public CodeGenProjectService(Project project) {
         log.info("Project (" + project.getName() + ") service started");
 
-        project.getMessageBus().connect().subscribe(FileEditorManagerListener.FILE_EDITOR_MANAGER, new CodeGenFileEditorManagerListener());
+        this.project = project;
+        this.assignability = CachedValuesManager.getManager(project).createCachedValue(() ->
+                CachedValueProvider.Result.create(new ConcurrentHashMap<>(), PsiModificationTracker.getInstance(project)), false);
+        resetNonTemplates();
+
+        project.getMessageBus().connect(this).subscribe(FileEditorManagerListener.FILE_EDITOR_MANAGER, new CodeGenFileEditorManagerListener());
+
+        project.getMessageBus().connect(this).subscribe(VirtualFileManager.VFS_CHANGES, new CodeGenBulkFileListener(project));
+
+        project.getMessageBus().connect(this).subscribe(ModuleRootListener.TOPIC, new CodeGenModuleRootListener(project));
+
+        PsiManager.getInstance(project).addPsiTreeChangeListener(new CodeGenPsiTreeChangeListener(project), this);
+    }
+
+    public static CodeGenProjectService getInstance(Project project) {
+        return project.getService(CodeGenProjectService.class);
+    }
+
+    public void resetNonTemplates() {
+        nonTemplates.clear();
+        nonTemplates.addAll(Lookup.NON_TEMPLATES);
+    }
+
+    public List<LookupCache<String, ?>> getCaches() {
+        return List.of(classes, generated, nonGeneratedCache, validators, enrichers, generatedNames, prototypeNames, missingClassesCache);
+    }
+
+    public List<LookupCache.Stats> getCacheStats() {
+        return getCaches().stream().map(LookupCache::getStats).toList();
+    }
+
+    protected void generatedNameEvicted(String name, String generated) {
+        if (nonNull(generated)) {
+            prototypeNames.remove(generated, name);
+        }
+        evicted(name, generated);
+    }
+
+    protected void prototypeNameEvicted(String generated, String name) {
+        if (nonNull(name) && generatedNames.remove(name, generated)) {
+            evicted(name, null);
+        }
+    }
+
+    protected void evicted(String name, Object value) {
+        if (!classes.peek(name) && !generated.peek(name) && !nonGeneratedCache.peek(name) && !validators.peek(name) && !enrichers.peek(name) && !generatedNames.peek(name) && !prototypes.containsKey(name) && !nonTemplates.contains(name)) {
+            removeStamp(name);
+            dependents.values().forEach(names -> names.remove(name));
+        }
+    }
+
+    public FileStamp getStamp(String name) {
+        return stamps.get(name);
+    }
+
+    public void putStamp(String name, FileStamp stamp) {
+        var old = stamps.put(name, stamp);
+        if (nonNull(old) && nonNull(old.file()) && !old.file().equals(stamp.file())) {
+            unlink(old.file(), name);
+        }
+        if (nonNull(stamp.file())) {
+            stamped.computeIfAbsent(stamp.file(), k -> ConcurrentHashMap.newKeySet()).add(name);
+        }
+    }
+
+    public void removeStamp(String name) {
+        var old = stamps.remove(name);
+        if (nonNull(old) && nonNull(old.file())) {
+            unlink(old.file(), name);
+        }
+    }
+
+    public Set<String> getStamped(VirtualFile file) {
+        var names = stamped.get(file);
+        return nonNull(names) ? Set.copyOf(names) : Collections.emptySet();
+    }
+
+    protected void unlink(VirtualFile file, String name) {
+        stamped.computeIfPresent(file, (k, names) -> {
+            names.remove(name);
+            return names.isEmpty() ? null : names;
+        });
+    }
+
+    public void clear() {
+        classes.clear();
+        prototypes.clear();
+        generated.clear();
+        nonGenerated.clear();
+        validators.clear();
+        enrichers.clear();
+        generatedNames.clear();
+        prototypeNames.clear();
+        defaultProperties.clear();
+        missingClasses.clear();
+        dependents.clear();
+        stamps.clear();
+        stamped.clear();
+        resetNonTemplates();
+    }
 
-        project.getMessageBus().connect().subscribe(VirtualFileManager.VFS_CHANGES, new CodeGenBulkFileListener(project));
+    @Override
+    public void dispose() {
+        clear();
+        log.info("Project (" + project.getName() + ") service disposed");
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,125 @@
+package net.binis.intellij.startup;
+
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.IndexNotReadyException;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.startup.ProjectActivity;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.intellij.util.indexing.ID;
+import kotlin.Unit;
+import kotlin.coroutines.Continuation;
+import net.binis.intellij.index.AnnotationsIndex;
+import net.binis.intellij.index.GeneratedIndex;
+import net.binis.intellij.index.PrototypeIndex;
+import net.binis.intellij.tools.Binis;
+import net.binis.intellij.tools.Lookup;
+import net.binis.intellij.tools.Trace;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+public class CodeGenStartupActivity implements ProjectActivity {
+
+    private static final Logger log = Logger.getInstance(CodeGenStartupActivity.class);
+    private static final int BATCH_SIZE = 50;
+
+    @Override
+    public @Nullable Object execute(@NotNull Project project, @NotNull Continuation<? super Unit> continuation) {
+        DumbService.getInstance(project).runWhenSmart(() ->
+                new Task.Backgroundable(project, "Warming up Binis CodeGen", true) {
+                    @Override
+                    public void run(@NotNull ProgressIndicator indicator) {
+                        warmUp(project, indicator);
+                    }
+                }.queue());
+        return Unit.INSTANCE;
+    }
+
+    protected static void warmUp(Project project, ProgressIndicator indicator) {
+        try {
+            if (!ReadAction.compute(() -> !project.isDisposed() && Binis.isPluginEnabled(project))) {
+                return;
+            }
+
+            indicator.setIndeterminate(false);
+            indicator.setText("Registering templates");
+            runInBatches(project, indicator, List.of("net.binis.codegen.annotation.CodePrototype", "net.binis.codegen.annotation.EnumPrototype"), name ->
+                    Lookup.processPrototype(project, name));
+
+            var scope = GlobalSearchScope.projectScope(project);
+            indicator.setText("Registering prototypes");
+            runInBatches(project, indicator, projectKeys(project, indicator, PrototypeIndex.NAME, scope), name -> {
+                var known = FileBasedIndex.getInstance().getValues(PrototypeIndex.NAME, name, scope).stream()
+                        .flatMap(List::stream)
+                        .flatMap(entry -> entry.names().stream())
+                        .anyMatch(n -> isKnownTemplate(project, n));
+                if (known) {
+                    Lookup.getPrototypeData(project, name);
+                }
+            });
+
+            indicator.setText("Registering generated classes");
+            runInBatches(project, indicator, projectKeys(project, indicator, GeneratedIndex.NAME, scope), name -> {
+                if (!FileBasedIndex.getInstance().getContainingFiles(GeneratedIndex.NAME, name, scope).isEmpty()) {
+                    Lookup.isGenerated(project, name);
+                }
+            });
+
+            Trace.event("warmUp", project.getName());
+        } catch (ProcessCanceledException e) {
+            throw e;
+        } catch (Exception e) {
+            log.warn("Failed to warm up project (" + project.getName() + ") registry", e);
+        }
+    }
+
+    protected static List<String> projectKeys(Project project, ProgressIndicator indicator, ID<String, ?> id, GlobalSearchScope scope) {
+        return ReadAction.nonBlocking(() -> {
+                    var result = new ArrayList<String>();
+                    FileBasedIndex.getInstance().processAllKeys(id, key -> {
+                        result.add(key);
+                        return true;
+                    }, scope, null);
+                    return result;
+                })
+                .inSmartMode(project)
+                .wrapProgress(indicator)
+                .executeSynchronously();
+    }
+
+    protected static boolean isKnownTemplate(Project project, String name) {
+        return Lookup.registry(project).getPrototypes().containsKey(name) || AnnotationsIndex.isTemplate(project, name);
+    }
+
+    protected static void runInBatches(Project project, ProgressIndicator indicator, List<String> names, Consumer<String> action) {
+        for (var i = 0; i < names.size(); i += BATCH_SIZE) {
+            indicator.checkCanceled();
+            indicator.setFraction((double) i / names.size());
+            var batch = names.subList(i, Math.min(i + BATCH_SIZE, names.size()));
+            ReadAction.nonBlocking(() -> {
+                        for (var name : batch) {
+                            try {
+                                action.accept(name);
+                            } catch (IndexNotReadyException e) {
+                                //Do nothing
+                            }
+                        }
+                    })
+                    .inSmartMode(project)
+                    .expireWith(project)
+                    .wrapProgress(indicator)
+                    .executeSynchronously();
+        }
+        indicator.setFraction(1.0);
+    }
+
+}
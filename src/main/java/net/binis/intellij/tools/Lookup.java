@@ -1,6 +1,7 @@
 package net.binis.intellij.tools;
 
 import com.github.javaparser.ast.expr.Name;
+import com.intellij.codeInsight.daemon.DaemonCodeAnalyzer;
 import com.intellij.lang.jvm.JvmAnnotation;
 import com.intellij.lang.jvm.annotation.JvmAnnotationArrayValue;
 import com.intellij.lang.jvm.annotation.JvmAnnotationClassValue;
@@ -10,14 +11,21 @@ import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.module.Module;
 import com.intellij.openapi.progress.ProcessCanceledException;
 import com.intellij.openapi.project.Project;
-import com.intellij.openapi.project.ProjectManager;
 import com.intellij.openapi.roots.ProjectFileIndex;
+import com.intellij.openapi.roots.ProjectRootModificationTracker;
+import com.intellij.openapi.vfs.JarFileSystem;
+import com.intellij.openapi.vfs.VfsUtilCore;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.*;
 import com.intellij.psi.impl.source.PsiClassReferenceType;
 import com.intellij.psi.impl.source.PsiExtensibleClass;
 import com.intellij.psi.impl.source.PsiImmediateClassType;
 import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.search.ProjectScope;
+import com.intellij.psi.search.searches.ClassInheritorsSearch;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.InheritanceUtil;
 import com.intellij.psi.util.PsiTreeUtil;
 import com.intellij.task.ProjectTaskManager;
 import lombok.Builder;
@@ -33,9 +41,17 @@ import net.binis.codegen.discovery.Discoverer;
 import net.binis.codegen.generation.core.interfaces.PrototypeData;
 import net.binis.codegen.tools.Holder;
 import net.binis.codegen.tools.Interpolator;
-import net.binis.intellij.objects.CodeGenLightParameter;
+import net.binis.intellij.index.AnnotationsIndex;
+import net.binis.intellij.index.GeneratedByIndex;
+import net.binis.intellij.index.GeneratedIndex;
+import net.binis.intellij.index.PrototypeIndex;
+import net.binis.intellij.services.CodeGenApplicationService;
 import net.binis.intellij.services.CodeGenProjectService;
 import net.binis.intellij.tools.objects.EnricherData;
+import net.binis.intellij.tools.objects.EnricherFilter;
+import net.binis.intellij.tools.objects.FileStamp;
+import net.binis.intellij.tools.objects.PrototypeDataSnapshot;
+import net.binis.intellij.tools.objects.TemplateSnapshot;
 import net.binis.intellij.util.PrototypeUtil;
 import org.apache.commons.lang3.StringUtils;
 import org.jetbrains.concurrency.Promise;
@@ -43,9 +59,6 @@ import org.jetbrains.concurrency.Promise;
 import java.lang.annotation.*;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.function.Function;
-import java.util.function.UnaryOperator;
-import java.util.stream.Stream;
 
 import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
@@ -57,21 +70,22 @@ public class Lookup {
     @Builder
     public record Root(PsiExpression expression, Set<String> methods) {}
 
+    public record TargetKey(String target, String type, GlobalSearchScope scope) {}
+
+    protected record DeclaredTargets(List<String> targets) {}
+
     private static final Logger log = Logger.getInstance(Lookup.class);
     private static final ThreadLocal<Boolean> registeringTemplate = ThreadLocal.withInitial(() -> false);
     private static final ThreadLocal<Boolean> registeringClass = ThreadLocal.withInitial(() -> false);
-    private static final Map<String, LookupDescription> classes = new ConcurrentHashMap<>();
-    private static final Map<String, PrototypeData> prototypes = new ConcurrentHashMap<>();
-    private static Set<String> nonTemplates = initNonTemplates();
-    private static final Set<String> processing = Collections.synchronizedSet(new HashSet<>());
-    private static final Map<String, String> generated = new ConcurrentHashMap<>();
-    private static final Set<String> nonGenerated = Collections.synchronizedSet(new HashSet<>());
-    private static final Map<String, ValidationDescription> validators = new ConcurrentHashMap<>();
     public static final Set<String> STARTERS = Set.of("create", "with", "find", "builder");
     public static final Map<String, Set<String>> ROUTINES = Map.of(
             "net.binis.codegen.async.Async", Set.of("start", "flow", "delay", "lock", "execute", "collect", "virtual"),
             "net.binis.codegen.projection.Projection", Set.of("single", "list", "set"),
             "net.binis.codegen.map.Mapper", Set.of("map", "source", "strategy", "key", "destination", "custom", "producer", "register"));
+    private static final Set<String> TEMPLATE_ATTRIBUTES = Set.of("base", "name", "generateConstructor", "interfaceName", "implementationPath", "interfaceSetters", "classGetters", "classSetters",
+            "interfacePath", "generateInterface", "basePath", "generateImplementation", "implementationPackage", "strategy");
+    private static final String TARGETS_AWARE = "net.binis.codegen.validation.consts.ValidationTargets.TargetsAware";
+    private static final Set<String> unresolvedTargetsAware = ConcurrentHashMap.newKeySet();
     private static final Map<String, List<String>> knownTargetAwareClasses = Map.of(
             "net.binis.codegen.validation.consts.ValidationTargets.Primitives", List.of(int.class.getCanonicalName(), long.class.getCanonicalName(), double.class.getCanonicalName(), float.class.getCanonicalName(), short.class.getCanonicalName(), byte.class.getCanonicalName(), boolean.class.getCanonicalName(), char.class.getCanonicalName()),
             "net.binis.codegen.validation.consts.ValidationTargets.Wrappers", List.of(Integer.class.getCanonicalName(), Long.class.getCanonicalName(), Double.class.getCanonicalName(), Float.class.getCanonicalName(), Short.class.getCanonicalName(), Byte.class.getCanonicalName(), Boolean.class.getCanonicalName(), Character.class.getCanonicalName()),
@@ -82,8 +96,7 @@ public class Lookup {
     );
 
     protected static final Set<String> HIGHLIGHT_METHODS = initHighlightMethods();
-
-    public static final Map<Project, CodeGenProjectService> projects = new ConcurrentHashMap<>();
+    public static final Set<String> NON_TEMPLATES = initNonTemplates();
 
     private static Set<String> initHighlightMethods() {
         var result = new HashSet<String>();
@@ -183,39 +196,146 @@ public class Lookup {
         result.add(Map.class.getCanonicalName());
         result.add(Set.class.getCanonicalName());
         result.add(List.class.getCanonicalName());
-        return Collections.synchronizedSet(result);
+        return Collections.unmodifiableSet(result);
     }
 
     public static boolean getRegisteringTemplate() {
         return registeringTemplate.get() || registeringClass.get();
     }
 
-    public static synchronized void registerClass(PsiClass cls) {
+    public static CodeGenProjectService registry(Project project) {
+        return CodeGenProjectService.getInstance(project);
+    }
+
+    protected static void stamp(PsiClass cls) {
+        with(cls.getQualifiedName(), name ->
+                registry(cls.getProject()).putStamp(name, FileStamp.of(cls)));
+    }
+
+    protected static void validate(Project project, String name) {
+        if (nonNull(name)) {
+            var stamp = registry(project).getStamp(name);
+            if (nonNull(stamp) && !stamp.isValid(project)) {
+                invalidate(project, name);
+            }
+        }
+    }
+
+    public static void invalidate(Project project, String name) {
+        var registry = registry(project);
+        registry.removeStamp(name);
+        registry.getClasses().remove(name);
+        registry.getGenerated().remove(name);
+        registry.getNonGenerated().remove(name);
+        registry.getNonTemplates().remove(name);
+        registry.getValidators().remove(name);
+        registry.getEnrichers().remove(name);
+        with(registry.getGeneratedNames().remove(name), generated -> registry.getPrototypeNames().remove(generated, name));
+        with(registry.getPrototypeNames().remove(name), prototype -> registry.getGeneratedNames().remove(prototype, name));
+        registry.getMissingClasses().remove(name);
+        registry.getDefaultProperties().remove(name);
+        registry.getPrototypes().remove(name);
+        invalidateDependents(project, name);
+    }
+
+    public static void invalidateAll(Project project) {
+        registry(project).clear();
+        DaemonCodeAnalyzer.getInstance(project).restart();
+    }
+
+    protected static void invalidateDependents(Project project, String name) {
+        with(registry(project).getDependents().remove(name), dependents ->
+                dependents.forEach(dependent -> invalidate(project, dependent)));
+    }
+
+    protected static void addDependency(Project project, String dependency, String dependent) {
+        if (nonNull(dependency) && nonNull(dependent)) {
+            registry(project).getDependents().computeIfAbsent(dependency, k -> ConcurrentHashMap.newKeySet()).add(dependent);
+        }
+    }
+
+    protected static void addTemplateDependency(Project project, String dependency, String dependent) {
+        var registry = registry(project);
+        if (nonNull(dependency) && (registry.getPrototypes().containsKey(dependency) || registry.getDefaultProperties().containsKey(dependency))) {
+            addDependency(project, dependency, dependent);
+        }
+    }
+
+    protected static LookupDescription getDescription(Project project, String name) {
+        validate(project, name);
+        var result = registry(project).getClasses().get(name);
+        if (nonNull(result) && nonNull(result.getTemplate())) {
+            validate(project, result.getTemplate());
+            result = registry(project).getClasses().get(name);
+        }
+        if (nonNull(result) && result.isPrototype() && validateEnrichers(project, result.getPrototype())) {
+            result = registry(project).getClasses().get(name);
+        }
+        return result;
+    }
+
+    /**
+     * Enricher edits in the editor don't reach the stamps otherwise, a stale enricher invalidates its dependents.
+     */
+    protected static boolean validateEnrichers(Project project, PrototypeData data) {
+        var custom = data.getCustom();
+        var result = false;
+        if (nonNull(custom)) {
+            for (var key : List.of("enrichers", "inheritedEnrichers")) {
+                if (custom.get(key) instanceof List<?> list) {
+                    for (var enricher : list) {
+                        if (enricher instanceof EnricherData e && nonNull(e.getClsName())) {
+                            var stamp = registry(project).getStamp(e.getClsName());
+                            if (nonNull(stamp) && !stamp.isValid(project)) {
+                                invalidate(project, e.getClsName());
+                                result = true;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    public static void registerClass(PsiClass cls) {
+        var name = cls.getQualifiedName();
+        if (nonNull(name)) {
+            var registry = registry(cls.getProject());
+            if (!registry.getClasses().containsKey(name)) {
+                var start = Metrics.start();
+                registry.getRegistrations().compute(name, () -> {
+                    doRegisterClass(cls, name);
+                    return null;
+                }, null);
+                Metrics.stop("lookup.registerClass", start);
+            }
+        }
+    }
+
+    protected static void doRegisterClass(PsiClass cls, String name) {
         try {
-            var name = cls.getQualifiedName();
-            if (nonNull(name) && !classes.containsKey(name)) {
+            var classes = registry(cls.getProject()).getClasses();
+            if (!classes.containsKey(name)) {
                 registeringClass.set(true);
                 try {
-                    classes.put(name, LookupDescription.builder()
-                            .clsName(cls.getQualifiedName())
-                            .prototype(Arrays.stream(cls.getAnnotations())
-                                    .map(a -> {
-                                        var data = isPrototypeAnnotation(a);
-                                        if (nonNull(data)) {
-                                            var builder = copyData(data);
-                                            readAnnotation(a, builder);
-                                            return Optional.of(builder.build());
-                                        } else {
-                                            return Optional.<PrototypeData>empty();
-                                        }
-                                    })
-                                    .filter(Optional::isPresent)
-                                    .map(Optional::get)
-                                    .findFirst()
-                                    .orElse(null))
-                            .build());
+                    var description = LookupDescription.builder()
+                            .clsName(cls.getQualifiedName());
+                    for (var a : cls.getAnnotations()) {
+                        var data = isPrototypeAnnotation(cls.getProject(), a);
+                        if (nonNull(data)) {
+                            addDependency(cls.getProject(), a.getQualifiedName(), name);
+                            var builder = copyData(data);
+                            readAnnotation(a, builder);
+                            description.prototype(PrototypeDataSnapshot.of(data, builder.build()))
+                                    .template(PrototypeDataSnapshot.intern(a.getQualifiedName()));
+                            break;
+                        }
+                    }
+                    stamp(cls);
+                    classes.put(name, description.build());
                     checkGenerated(cls);
-                    log.info("Registered class: " + name);
+                    Trace.event("registerClass", name);
                 } finally {
                     registeringClass.set(false);
                 }
@@ -224,24 +344,58 @@ public class Lookup {
             throw e;
         } catch (Exception e) {
             log.warn("Failed to register class: " + cls.getQualifiedName() + " - " + e.getMessage(), e);
-        } finally {
-            projects.computeIfAbsent(cls.getProject(), p ->
-                    p.getService(CodeGenProjectService.class));
         }
     }
 
+    protected static LookupDescription registerIndexed(Project project, String name) {
+        var indexed = PrototypeIndex.find(project, name);
+        if (nonNull(indexed)) {
+            var registry = registry(project);
+            var description = LookupDescription.builder()
+                    .clsName(name);
+            for (var entry : indexed.entries()) {
+                //Templates shipped in jars are resolved through their annotations resource so a cold registry can answer
+                var template = entry.names().stream()
+                        .filter(n -> registry.getPrototypes().containsKey(n) || AnnotationsIndex.isTemplate(project, n) && nonNull(isPrototypeAnnotation(project, n)))
+                        .findFirst();
+                if (template.isPresent()) {
+                    addDependency(project, template.get(), name);
+                    if (!entry.literal()) {
+                        return null;
+                    }
+                    var data = registry.getPrototypes().get(template.get());
+                    var builder = copyData(data);
+                    readIndexedAnnotation(template.get(), entry.attributes(), builder);
+                    description.prototype(PrototypeDataSnapshot.of(data, builder.build()))
+                            .template(PrototypeDataSnapshot.intern(template.get()));
+                    break;
+                } else if (!entry.names().stream().allMatch(registry.getNonTemplates()::contains)) {
+                    return null;
+                }
+            }
+            var result = description.build();
+            registry.putStamp(name, FileStamp.of(project, indexed.file()));
+            registry.getClasses().put(name, result);
+            return result;
+        }
+        return null;
+    }
+
     public static PrototypeData getPrototypeData(PsiClass cls) {
-        return getPrototypeData(cls.getQualifiedName());
+        return getPrototypeData(cls.getProject(), cls.getQualifiedName());
     }
 
-    public static PrototypeData getPrototypeData(String name) {
+    public static PrototypeData getPrototypeData(Project project, String name) {
         if (nonNull(name)) {
-            var cls = classes.get(name);
+            var cls = getDescription(project, name);
+            if (isNull(cls)) {
+                cls = registerIndexed(project, name);
+            }
             if (nonNull(cls)) {
                 return cls.getPrototype();
             } else {
-                findClass(name).ifPresent(Lookup::registerClass);
-                cls = classes.get(name);
+                findClass(project, name).ifPresent(Lookup::registerClass);
+                cls = registry(project).getClasses().get(name);
                 if (nonNull(cls)) {
                     return cls.getPrototype();
                 }
@@ -251,18 +405,21 @@ public class Lookup {
         return null;
     }
 
-    public static boolean isPrototype(String name) {
-        return nonNull(getPrototypeData(name));
+    public static boolean isPrototype(Project project, String name) {
+        return nonNull(getPrototypeData(project, name));
     }
 
     public static boolean isPrototype(PsiClass clas) {
         if (nonNull(clas) && nonNull(clas.getQualifiedName())) {
-            var cls = classes.get(clas.getQualifiedName());
+            var cls = getDescription(clas.getProject(), clas.getQualifiedName());
+            if (isNull(cls)) {
+                cls = registerIndexed(clas.getProject(), clas.getQualifiedName());
+            }
             if (nonNull(cls)) {
                 return cls.isPrototype();
             } else {
                 Lookup.registerClass(clas);
-                cls = classes.get(clas.getQualifiedName());
+                cls = registry(clas.getProject()).getClasses().get(clas.getQualifiedName());
                 if (nonNull(cls)) {
                     return cls.isPrototype();
                 }
@@ -272,22 +429,25 @@ public class Lookup {
         return false;
     }
 
-    public static boolean isGenerated(String name) {
+    public static boolean isGenerated(Project project, String name) {
         try {
             if (nonNull(name)) {
-                if (generated.containsKey(name)) {
+                validate(project, name);
+                var registry = registry(project);
+                if (registry.getGenerated().containsKey(name)) {
                     return true;
                 }
 
-                if (nonGenerated.contains(name)) {
+                if (registry.getNonGenerated().contains(name)) {
                     return false;
                 }
 
-                if (classes.containsKey(name)) {
-                    return false;
+                var indexed = registerGeneratedIndexed(project, name);
+                if (nonNull(indexed)) {
+                    return indexed;
                 }
 
-                return findClass(name)
+                return findClass(project, name)
                         .filter(Lookup::checkGenerated)
                         .isPresent();
             }
@@ -304,25 +464,27 @@ public class Lookup {
                     return true;
                 }
             }
-            return isGenerated(cls.getQualifiedName());
+            return isGenerated(cls.getProject(), cls.getQualifiedName());
         }
         return false;
     }
 
     protected static boolean checkGenerated(PsiClass cls) {
         var name = cls.getQualifiedName();
-        if (generated.containsKey(name)) {
+        var registry = registry(cls.getProject());
+        if (registry.getGenerated().containsKey(name)) {
             return true;
         }
-        if (!nonGenerated.contains(name)) {
+        if (!registry.getNonGenerated().contains(name)) {
             var ann = cls.getAnnotation("net.binis.codegen.annotation.Generated");
             if (nonNull(ann)) {
                 var value = ann.findAttributeValue("by");
                 if (value instanceof PsiLiteralExpression exp) {
                     var proto = (String) exp.getValue();
-                    findClass(proto).ifPresent(Lookup::registerClass);
-                    generated.put(name, proto);
-                    log.info("Registered generated class: " + name);
+                    findClass(cls, proto).ifPresent(Lookup::registerClass);
+                    stamp(cls);
+                    registry.getGenerated().put(name, proto);
+                    Trace.event("registerGenerated", name);
                     return true;
                 }
             }
@@ -332,34 +494,70 @@ public class Lookup {
                 var value = ann.findAttributeValue("value");
                 if (value instanceof PsiLiteralExpression exp) {
                     var proto = (String) exp.getValue();
-                    findClass(proto).ifPresent(Lookup::registerClass);
-                    generated.put(name, proto);
-                    log.info("Registered generated class: " + name);
+                    findClass(cls, proto).ifPresent(Lookup::registerClass);
+                    stamp(cls);
+                    registry.getGenerated().put(name, proto);
+                    Trace.event("registerGenerated", name);
                     return true;
                 }
             }
-            log.info("Registered non-generated class: " + name);
-            nonGenerated.add(name);
+            Trace.event("registerNonGenerated", name);
+            stamp(cls);
+            registry.getNonGenerated().add(name);
         }
 
         return false;
     }
 
-    public static String getPrototype(String name) {
-        return generated.get(name);
+    protected static Boolean registerGeneratedIndexed(Project project, String name) {
+        var registry = registry(project);
+        var indexed = GeneratedIndex.find(project, name);
+        if (nonNull(indexed)) {
+            registry.putStamp(name, FileStamp.of(project, indexed.file()));
+            registry.getGenerated().put(name, indexed.prototype());
+            Trace.event("registerGenerated", name);
+            return true;
+        }
+
+        var source = PrototypeIndex.find(project, name);
+        if (nonNull(source)) {
+            registry.putStamp(name, FileStamp.of(project, source.file()));
+            registry.getNonGenerated().add(name);
+            Trace.event("registerNonGenerated", name);
+            return false;
+        }
+
+        return null;
+    }
+
+    public static String getPrototype(Project project, String name) {
+        if (nonNull(name)) {
+            validate(project, name);
+            var registry = registry(project);
+            var result = registry.getGenerated().get(name);
+            if (isNull(result) && !registry.getNonGenerated().contains(name) && Boolean.TRUE.equals(registerGeneratedIndexed(project, name))) {
+                result = registry.getGenerated().get(name);
+            }
+            if (isNull(result)) {
+                result = registry.getPrototypeNames().get(name);
+            }
+            return result;
+        }
+        return null;
+    }
+
+    public static List<String> getGeneratedClasses(Project project, String prototype) {
+        return GeneratedByIndex.find(project, prototype);
     }
 
     public static String getPrototype(PsiClass cls) {
-        return getPrototype(cls.getQualifiedName());
+        return getPrototype(cls.getProject(), cls.getQualifiedName());
     }
 
-    public static PsiClass getPrototypeClass(String name) {
-        var proto = generated.get(name);
+    public static PsiClass getPrototypeClass(Project project, String name) {
+        var proto = getPrototype(project, name);
         if (nonNull(proto)) {
-            var cls = classes.get(proto);
-            if (nonNull(cls)) {
-                return findClass(cls.clsName).orElse(null);
-            }
+            return findClass(project, proto).orElse(null);
         }
 
         return null;
@@ -373,22 +571,55 @@ public class Lookup {
                     return result;
                 }
             }
-            return getPrototypeClass(cls.getQualifiedName());
+            var proto = getPrototype(cls.getProject(), cls.getQualifiedName());
+            if (nonNull(proto)) {
+                return findClass(cls, proto).orElse(null);
+            }
         }
 
         return null;
     }
 
 
-    public static Optional<PsiClass> findClass(String name) {
-        for (var project : ProjectManager.getInstance().getOpenProjects()) {
-            for (var c : JavaPsiFacade.getInstance(project).findClasses(name, GlobalSearchScope.allScope(project))) {
-                return Optional.of(c);
-            }
+    public static Optional<PsiClass> findClass(PsiElement context, String name) {
+        var project = context.getProject();
+        Metrics.count("lookup.findClass.context");
+        if (isNull(name) || registry(project).getMissingClasses().contains(name)) {
+            return Optional.empty();
         }
+        var start = Metrics.start();
+        var result = JavaPsiFacade.getInstance(project).findClass(name, context.getResolveScope());
+        Metrics.stop("lookup.findClass.context", start);
+        if (isNull(result)) {
+            //Records the miss if the class is not available anywhere in the project
+            findClass(project, name);
+        }
+        return Optional.ofNullable(result);
+    }
+
+    public static Optional<PsiClass> findClass(Project project, String name) {
+        if (isNull(name)) {
+            return Optional.empty();
+        }
+        Metrics.count("lookup.findClass.project");
+        var missing = registry(project).getMissingClasses();
+        if (missing.contains(name)) {
+            return Optional.empty();
+        }
+        var start = Metrics.start();
+        var classes = JavaPsiFacade.getInstance(project).findClasses(name, GlobalSearchScope.allScope(project));
+        Metrics.stop("lookup.findClass.project", start);
+        if (classes.length > 0) {
+            return Optional.of(classes[0]);
+        }
+        missing.add(name);
         return Optional.empty();
     }
 
+    public static void clearMissingClasses(Project project) {
+        registry(project).getMissingClasses().clear();
+    }
+
     public static PsiIdentifier findIdentifier(PsiClass cls) {
         return Arrays.stream(cls.getChildren())
                 .filter(PsiIdentifier.class::isInstance)
@@ -397,119 +628,108 @@ public class Lookup {
                 .orElse(null);
     }
 
-    public static PrototypeData isPrototypeAnnotation(PsiAnnotation proto) {
-        return isPrototypeAnnotation(proto.getQualifiedName());
+    public static PrototypeData isPrototypeAnnotation(Project project, PsiAnnotation proto) {
+        return isPrototypeAnnotation(project, proto.getQualifiedName());
     }
 
-    public static PrototypeData isPrototypeAnnotation(String name) {
+    public static PrototypeData isPrototypeAnnotation(Project project, String name) {
         if (nonNull(name)) {
-            var result = prototypes.get(name);
+            validate(project, name);
+            var result = registry(project).getPrototypes().get(name);
 
             if (nonNull(result)) {
                 return result;
             }
 
-            return discoverAnnotation(name);
+            return discoverAnnotation(project, name);
         }
         return null;
     }
 
-    protected static PrototypeData discoverAnnotation(String name) {
-        if (!nonTemplates.contains(name) && !processing.contains(name)) {
-            try {
-                processing.add(name);
-                var cls = Lookup.findClass(name);
+    protected static PrototypeData discoverAnnotation(Project project, String name) {
+        var registry = registry(project);
+        var prototypes = registry.getPrototypes();
+        if (!registry.getNonTemplates().contains(name)) {
+            var result = registry.getDiscoveries().compute(name, () -> {
+                Metrics.count("lookup.discoverAnnotation");
+                var cls = Lookup.findClass(project, name);
                 if (cls.isPresent()) {
-                    var parent = cls.get().getParent();
-                    while (nonNull(parent.getParent())) {
-                        parent = parent.getParent();
-                    }
-
-                    if (parent instanceof PsiDirectory dir) {
-                        if (dir.getName().endsWith(".jar")) {
-                            var resourceDir = Arrays.stream(dir.getChildren())
-                                    .filter(PsiDirectory.class::isInstance)
-                                    .map(PsiDirectory.class::cast)
-                                    .filter(c -> "binis".equals(c.getName()))
-                                    .findFirst();
-                            if (resourceDir.isPresent()) {
-                                var file = Arrays.stream(resourceDir.get().getChildren())
-                                        .filter(PsiFile.class::isInstance)
-                                        .map(PsiFile.class::cast)
-                                        .filter(c -> "annotations".equals(c.getName()))
-                                        .findFirst();
-
-                                if (file.isPresent() && file.get() instanceof PsiPlainTextFile text) {
-                                    Discoverer.findAnnotations(text.getText()).stream()
-                                            .filter(d -> d.getType().equals(Discoverer.TEMPLATE))
-                                            .filter(d -> !prototypes.containsKey(d.getName()))
-                                            .forEach(service ->
-                                                    Lookup.processPrototype(service.getName()));
-                                    var result = prototypes.get(name);
-                                    if (nonNull(result)) {
-                                        return result;
-                                    } else {
-                                        checkForNonRegisteredTemplates(cls.get());
-                                        result = prototypes.get(name);
-                                        if (nonNull(result)) {
-                                            return result;
-                                        }
-                                    }
+                    var file = withRes(cls.get().getContainingFile(), PsiFile::getVirtualFile);
+                    if (nonNull(file) && file.getFileSystem() instanceof JarFileSystem jars) {
+                        //Jar annotations are only templates if the jar lists them, register all of its templates at once
+                        var annotations = withRes(jars.getRootByEntry(file), root -> AnnotationsIndex.findInRoot(project, root));
+                        if (nonNull(annotations)) {
+                            annotations.forEach((annotation, type) -> {
+                                if (Discoverer.TEMPLATE.equals(type) && !prototypes.containsKey(annotation)) {
+                                    processPrototype(project, annotation);
                                 }
-                            }
-                        } else {
-                            checkForNonRegisteredTemplates(cls.get());
-                            var result = prototypes.get(name);
-                            if (nonNull(result)) {
-                                return result;
+                            });
+                            if (!prototypes.containsKey(name)) {
+                                checkForNonRegisteredTemplates(cls.get());
                             }
                         }
+                        return prototypes.get(name);
                     }
+
+                    checkForNonRegisteredTemplates(cls.get());
+                    return prototypes.get(name);
                 }
-            } finally {
-                processing.remove(name);
-            }
+                return null;
+            }, null);
+            //Result of a shared computation can come from a template check, so read the registry again
+            return nonNull(result) ? result : prototypes.get(name);
         }
 
         return null;
     }
 
     protected static void checkForNonRegisteredTemplates(PsiClass cls) {
+        var project = cls.getProject();
+        var registry = registry(project);
+        var prototypes = registry.getPrototypes();
         for (var ann : cls.getAnnotations()) {
             var name = ann.getQualifiedName();
             if (CodePrototypeTemplate.class.getCanonicalName().equals(name)) {
                 prototypes.computeIfAbsent(cls.getQualifiedName(), k -> {
                     registerTemplate(cls);
-                    return defaultProperties.get(k).get().build();
+                    return registry.getDefaultProperties().get(k).get().build();
                 });
-            } else if (!nonTemplates.contains(name)) {
-                if (!prototypes.containsKey(name) && !processing.contains(name)) {
-                    try {
-                        processing.add(name);
-                        findClass(name).ifPresent(Lookup::checkForNonRegisteredTemplates);
-                    } finally {
-                        processing.remove(name);
-                    }
+            } else if (!registry.getNonTemplates().contains(name)) {
+                if (!prototypes.containsKey(name)) {
+                    var annotation = name;
+                    registry.getDiscoveries().compute(name, () -> {
+                        findClass(project, annotation).ifPresent(Lookup::checkForNonRegisteredTemplates);
+                        return null;
+                    }, null);
                 }
 
                 if (prototypes.containsKey(name)) {
                     name = cls.getQualifiedName();
                     registerTemplate(cls);
-                    prototypes.put(name, defaultProperties.get(name).get().build());
+                    prototypes.put(name, registry.getDefaultProperties().get(name).get().build());
                 } else {
-                    registerNonTemplate(name);
+                    registerNonTemplate(project, name, ann.resolveAnnotationType());
                 }
             }
         }
     }
 
-    private static void registerNonTemplate(String name) {
-        log.info("Registered non-template: " + name);
-        nonTemplates.add(name);
+    private static void registerNonTemplate(Project project, String name, PsiClass cls) {
+        Trace.event("registerNonTemplate", name);
+        with(cls, c -> {
+            stamp(c);
+            for (var ann : c.getAnnotations()) {
+                addTemplateDependency(project, ann.getQualifiedName(), name);
+            }
+        });
+        registry(project).getNonTemplates().add(name);
     }
 
-    public static boolean processPrototype(String name) {
-        var clas = findClass(name);
+    public static boolean processPrototype(Project project, String name) {
+        var registry = registry(project);
+        var prototypes = registry.getPrototypes();
+        var defaultProperties = registry.getDefaultProperties();
+        var clas = findClass(project, name);
         if (clas.isPresent()) {
             if ("net.binis.codegen.annotation.CodePrototype".equals(name) || "net.binis.codegen.annotation.EnumPrototype".equals(name)) {
                 return nonNull(prototypes.computeIfAbsent(name, k -> {
@@ -520,12 +740,12 @@ public class Lookup {
                 if (nonNull(clas.get().getAnnotation(CodePrototypeTemplate.class.getCanonicalName()))) {
                     Arrays.stream(clas.get().getAnnotations())
                             .filter(a -> !defaultProperties.containsKey(a.getQualifiedName()))
-                            .filter(a -> !nonTemplates.contains(a.getQualifiedName()))
-                            .forEach(a -> discoverAnnotation(a.getQualifiedName()));
+                            .filter(a -> !registry.getNonTemplates().contains(a.getQualifiedName()))
+                            .forEach(a -> discoverAnnotation(project, a.getQualifiedName()));
                     registerTemplate(clas.get());
                     prototypes.put(name, defaultProperties.get(name).get().build());
                 } else {
-                    registerNonTemplate(name);
+                    registerNonTemplate(project, name, clas.get());
                 }
                 return true;
             }
@@ -535,20 +755,51 @@ public class Lookup {
     }
 
     public static String getGeneratedName(PsiClass cls) {
-        return getGeneratedName(cls.getQualifiedName(), cls.getParent() instanceof PsiClass);
+        var project = cls.getProject();
+        var name = cls.getQualifiedName();
+        var result = getCachedGeneratedName(project, name);
+        if (isNull(result)) {
+            result = getGeneratedName(project, name, cls.getParent() instanceof PsiClass);
+            registerGeneratedName(project, name, result);
+        }
+        return result;
     }
 
-    public static String getGeneratedName(String name) {
-        var cls = findClass(name);
-        return getGeneratedName(name, cls.map(c ->
-                c.getParent() instanceof PsiClass).orElse(false));
+    public static String getGeneratedName(Project project, String name) {
+        var result = getCachedGeneratedName(project, name);
+        if (isNull(result) && nonNull(name)) {
+            var cls = findClass(project, name);
+            result = getGeneratedName(project, name, cls.map(c ->
+                    c.getParent() instanceof PsiClass).orElse(false));
+            if (cls.isPresent()) {
+                registerGeneratedName(project, name, result);
+            }
+        }
+        return result;
     }
 
-    public static String getGeneratedName(String name, boolean isNested) {
+    protected static String getCachedGeneratedName(Project project, String name) {
+        if (nonNull(name)) {
+            validate(project, name);
+            return registry(project).getGeneratedNames().get(name);
+        }
+        return null;
+    }
+
+    protected static void registerGeneratedName(Project project, String name, String generated) {
+        //Only prototypes have a generated counterpart, plain classes would poison the reverse lookup
+        if (nonNull(name) && nonNull(generated) && nonNull(getPrototypeData(project, name))) {
+            var registry = registry(project);
+            registry.getGeneratedNames().put(name, generated);
+            registry.getPrototypeNames().put(generated, name);
+        }
+    }
+
+    public static String getGeneratedName(Project project, String name, boolean isNested) {
         var className = "";
         var classPath = "";
         var impl = false;
-        var proto = getPrototypeData(name);
+        var proto = getPrototypeData(project, name);
         if (nonNull(proto)) {
             if (GenerationStrategy.IMPLEMENTATION.equals(proto.getStrategy())) {
                 className = proto.getClassName();
@@ -731,14 +982,71 @@ public class Lookup {
                     case "inheritedEnrichers" -> handleInheritedEnrichers(builder, pair);
 //                    case "options":
 //                        builder.options((Set)handleClassExpression(pair.getValue(), Set.class));
-                    default -> builder.custom(pair.getAttributeName(), pair.getAttributeValue());
+                    default -> builder.custom(pair.getAttributeName(), detachValue(pair.getValue()));
                 }
             } else if (!(node instanceof Name)) {
-                builder.custom("value", node);
+                builder.custom("value", detachValue(node));
             }
         });
     }
 
+    protected static void readIndexedAnnotation(String annotation, Map<String, TemplateSnapshot.Value> attributes, PrototypeDataHandler.PrototypeDataHandlerBuilder builder) {
+        builder.custom("prototype", annotation);
+        attributes.forEach((attribute, value) -> {
+            if (TEMPLATE_ATTRIBUTES.contains(attribute)) {
+                readIndexedAttribute(builder, attribute, value.getText());
+            } else {
+                builder.custom(attribute, value.toObject());
+            }
+        });
+    }
+
+    protected static void readSnapshotAnnotation(TemplateSnapshot.Values values, PrototypeDataHandler.PrototypeDataHandlerBuilder builder) {
+        builder.custom("prototype", values.getName());
+        values.getAttributes().forEach((attribute, value) -> readIndexedAttribute(builder, attribute, value));
+        values.getCustom().forEach((attribute, value) -> builder.custom(attribute, value.toObject()));
+    }
+
+    protected static void readIndexedAttribute(PrototypeDataHandler.PrototypeDataHandlerBuilder builder, String attribute, String value) {
+        switch (attribute) {
+            case "name" -> {
+                if (StringUtils.isNotBlank(value)) {
+                    var intf = value.replace("Entity", "");
+                    builder.name(value).className(value).interfaceName(intf).longModifierName(intf + ".Modify");
+                }
+            }
+            case "generateConstructor" -> builder.generateConstructor(Boolean.parseBoolean(value));
+            case "generateImplementation" -> builder.generateImplementation(Boolean.parseBoolean(value));
+            case "generateInterface" -> builder.generateInterface(Boolean.parseBoolean(value));
+            case "interfaceName" -> builder.interfaceName(value);
+            case "classGetters" -> builder.classGetters(Boolean.parseBoolean(value));
+            case "classSetters" -> builder.classSetters(Boolean.parseBoolean(value));
+            case "interfaceSetters" -> builder.interfaceSetters(Boolean.parseBoolean(value));
+            case "base" -> builder.base(Boolean.parseBoolean(value));
+            case "implementationPackage" -> {
+                if (StringUtils.isNotBlank(value)) {
+                    builder.classPackage(value);
+                }
+            }
+            case "strategy" -> nullCheck(PrototypeUtil.readEnumValue(value, GenerationStrategy.class), builder::strategy);
+            case "basePath" -> {
+                if (StringUtils.isNotBlank(value)) {
+                    builder.basePath(value);
+                }
+            }
+            case "interfacePath" -> {
+                if (StringUtils.isNotBlank(value)) {
+                    builder.interfacePath(value);
+                }
+            }
+            case "implementationPath" -> {
+                if (StringUtils.isNotBlank(value)) {
+                    builder.implementationPath(value);
+                }
+            }
+        }
+    }
+
     protected static void handleInheritedEnrichers(PrototypeDataHandler.PrototypeDataHandlerBuilder builder, PsiNameValuePair pair) {
         with(handleEnrichersValue(pair.getValue()), list -> builder.custom("inheritedEnrichers", list));
     }
@@ -764,8 +1072,11 @@ public class Lookup {
 
     protected static void handleEnrichersValue(List<EnricherData> list, PsiAnnotationMemberValue value) {
         if (value instanceof PsiClassObjectAccessExpression exp && (exp.getType() instanceof PsiImmediateClassType || exp.getType() instanceof PsiClass || exp.getType() instanceof PsiClassReferenceType)) {
-            findClass(exp.getOperand().getType().getCanonicalText())
-                    .ifPresent(cls -> list.add(buildEnricherData(cls)));
+            findClass(value, exp.getOperand().getType().getCanonicalText()).ifPresent(cls -> {
+                with(PsiTreeUtil.getParentOfType(value, PsiClass.class), owner ->
+                        addDependency(value.getProject(), cls.getQualifiedName(), owner.getQualifiedName()));
+                list.add(buildEnricherData(cls));
+            });
         } else if (value instanceof PsiArrayInitializerMemberValue exp) {
             for (var val : exp.getInitializers()) {
                 handleEnrichersValue(list, val);
@@ -774,7 +1085,25 @@ public class Lookup {
     }
 
     protected static EnricherData buildEnricherData(PsiClass cls) {
-        var result = EnricherData.builder().cls(cls);
+        var project = cls.getProject();
+        var name = cls.getQualifiedName();
+        if (isNull(name)) {
+            return readEnricherData(cls);
+        }
+
+        validate(project, name);
+        var enrichers = registry(project).getEnrichers();
+        var result = enrichers.get(name);
+        if (isNull(result)) {
+            result = readEnricherData(cls);
+            stamp(cls);
+            enrichers.put(name, result);
+        }
+        return result;
+    }
+
+    protected static EnricherData readEnricherData(PsiClass cls) {
+        var result = EnricherData.builder().clsName(cls.getQualifiedName());
         var ann = cls.getAnnotation(CodeAugment.class.getCanonicalName());
         if (nonNull(ann)) {
             ann.getAttributes().forEach(attr -> {
@@ -867,100 +1196,39 @@ public class Lookup {
         return result.build();
     }
 
-    @SuppressWarnings("unchecked")
-    protected static Function<PsiClass, Stream<PsiParameter>> buildFilter(String filter) {
-        var segments = filter.split("\\|");
-        Function<PsiClass, Stream<CodeGenLightParameter>> elements = switch (segments[0]) {
-            case "FIELDS" -> (PsiClass cls) ->
-                    Arrays.stream(cls.getFields()).map(f ->
-                            new CodeGenLightParameter(f.getName(), f.getType(), f.getParent(), f.getModifierList(), f.hasInitializer()));
-            case "METHODS" -> (PsiClass cls) ->
-                    Arrays.stream(cls.getMethods()).map(m ->
-                            new CodeGenLightParameter(m.getName(), m.getReturnType(), m.getParent(), m.getModifierList(), false));
-            default -> null;
-        };
-
-        if (nonNull(elements)) {
-            var filters = new ArrayList<UnaryOperator<Stream<CodeGenLightParameter>>>();
-            for (var i = 1; i < segments.length; i++) {
-                if (nonNull(segments[i])) {
-                    switch (segments[i]) {
-                        case "PUBLIC" ->
-                                filters.add((Stream<CodeGenLightParameter> stream) -> stream.filter(m -> withRes(m.getOrgModifierList(), list -> list.hasExplicitModifier(PsiModifier.PUBLIC))));
-                        case "PRIVATE" ->
-                                filters.add((Stream<CodeGenLightParameter> stream) -> stream.filter(m -> withRes(m.getOrgModifierList(), list -> list.hasExplicitModifier(PsiModifier.PRIVATE))));
-                        case "PROTECTED" ->
-                                filters.add((Stream<CodeGenLightParameter> stream) -> stream.filter(m -> withRes(m.getOrgModifierList(), list -> list.hasExplicitModifier(PsiModifier.PROTECTED))));
-                        case "STATIC" ->
-                                filters.add((Stream<CodeGenLightParameter> stream) -> stream.filter(m -> withRes(m.getOrgModifierList(), list -> list.hasExplicitModifier(PsiModifier.STATIC))));
-                        case "FINAL" ->
-                                filters.add((Stream<CodeGenLightParameter> stream) -> stream.filter(m -> withRes(m.getOrgModifierList(), list -> list.hasExplicitModifier(PsiModifier.FINAL))));
-                        case "ABSTRACT" ->
-                                filters.add((Stream<CodeGenLightParameter> stream) -> stream.filter(m -> withRes(m.getOrgModifierList(), list -> list.hasExplicitModifier(PsiModifier.ABSTRACT))));
-                        case "TRANSIENT" ->
-                                filters.add((Stream<CodeGenLightParameter> stream) -> stream.filter(m -> withRes(m.getOrgModifierList(), list -> list.hasExplicitModifier(PsiModifier.TRANSIENT))));
-                        case "VOLATILE" ->
-                                filters.add((Stream<CodeGenLightParameter> stream) -> stream.filter(m -> withRes(m.getOrgModifierList(), list -> list.hasExplicitModifier(PsiModifier.VOLATILE))));
-                        case "SYNCHRONIZED" ->
-                                filters.add((Stream<CodeGenLightParameter> stream) -> stream.filter(m -> withRes(m.getOrgModifierList(), list -> list.hasExplicitModifier(PsiModifier.SYNCHRONIZED))));
-                        case "NATIVE" ->
-                                filters.add((Stream<CodeGenLightParameter> stream) -> stream.filter(m -> withRes(m.getOrgModifierList(), list -> list.hasExplicitModifier(PsiModifier.NATIVE))));
-                        case "STRICTFP" ->
-                                filters.add((Stream<CodeGenLightParameter> stream) -> stream.filter(m -> withRes(m.getOrgModifierList(), list -> list.hasExplicitModifier(PsiModifier.STRICTFP))));
-                        case "DEFAULT" ->
-                                filters.add((Stream<CodeGenLightParameter> stream) -> stream.filter(m -> withRes(m.getOrgModifierList(), list -> list.hasExplicitModifier(PsiModifier.DEFAULT))));
-                        case "INITIALIZED" ->
-                                filters.add((Stream<CodeGenLightParameter> stream) -> stream.filter(CodeGenLightParameter::isInitializer));
-                        case "!PUBLIC" ->
-                                filters.add((Stream<CodeGenLightParameter> stream) -> stream.filter(m -> withRes(m.getOrgModifierList(), list -> !list.hasExplicitModifier(PsiModifier.PUBLIC))));
-                        case "!PRIVATE" ->
-                                filters.add((Stream<CodeGenLightParameter> stream) -> stream.filter(m -> withRes(m.getOrgModifierList(), list -> !list.hasExplicitModifier(PsiModifier.PRIVATE))));
-                        case "!PROTECTED" ->
-                                filters.add((Stream<CodeGenLightParameter> stream) -> stream.filter(m -> withRes(m.getOrgModifierList(), list -> !list.hasExplicitModifier(PsiModifier.PROTECTED))));
-                        case "!STATIC" ->
-                                filters.add((Stream<CodeGenLightParameter> stream) -> stream.filter(m -> withRes(m.getOrgModifierList(), list -> !list.hasExplicitModifier(PsiModifier.STATIC))));
-                        case "!FINAL" ->
-                                filters.add((Stream<CodeGenLightParameter> stream) -> stream.filter(m -> withRes(m.getOrgModifierList(), list -> !list.hasExplicitModifier(PsiModifier.FINAL))));
-                        case "!ABSTRACT" ->
-                                filters.add((Stream<CodeGenLightParameter> stream) -> stream.filter(m -> withRes(m.getOrgModifierList(), list -> !list.hasExplicitModifier(PsiModifier.ABSTRACT))));
-                        case "!TRANSIENT" ->
-                                filters.add((Stream<CodeGenLightParameter> stream) -> stream.filter(m -> withRes(m.getOrgModifierList(), list -> !list.hasExplicitModifier(PsiModifier.TRANSIENT))));
-                        case "!VOLATILE" ->
-                                filters.add((Stream<CodeGenLightParameter> stream) -> stream.filter(m -> withRes(m.getOrgModifierList(), list -> !list.hasExplicitModifier(PsiModifier.VOLATILE))));
-                        case "!SYNCHRONIZED" ->
-                                filters.add((Stream<CodeGenLightParameter> stream) -> stream.filter(m -> withRes(m.getOrgModifierList(), list -> !list.hasExplicitModifier(PsiModifier.SYNCHRONIZED))));
-                        case "!NATIVE" ->
-                                filters.add((Stream<CodeGenLightParameter> stream) -> stream.filter(m -> withRes(m.getOrgModifierList(), list -> !list.hasExplicitModifier(PsiModifier.NATIVE))));
-                        case "!STRICTFP" ->
-                                filters.add((Stream<CodeGenLightParameter> stream) -> stream.filter(m -> withRes(m.getOrgModifierList(), list -> !list.hasExplicitModifier(PsiModifier.STRICTFP))));
-                        case "!DEFAULT" ->
-                                filters.add((Stream<CodeGenLightParameter> stream) -> stream.filter(m -> withRes(m.getOrgModifierList(), list -> !list.hasExplicitModifier(PsiModifier.DEFAULT))));
-                        case "!INITIALIZED" ->
-                                filters.add((Stream<CodeGenLightParameter> stream) -> stream.filter(m -> !m.isInitializer()));
-                    }
-                }
-            }
-            return (PsiClass c) -> {
-                var result = elements.apply(c);
-                for (var f : filters) {
-                    result = f.apply(result);
-                }
-                return (Stream) result;
-            };
-        }
-
-        return null;
+    protected static EnricherFilter buildFilter(String filter) {
+        return EnricherFilter.of(filter);
     }
 
     public static void registerTemplate(PsiClass regTemplate) {
         var name = regTemplate.getQualifiedName();
+        var project = regTemplate.getProject();
+        var registry = registry(project);
+        var defaultProperties = registry.getDefaultProperties();
         if (!defaultProperties.containsKey(name)) {
             registeringTemplate.set(true);
+            var start = Metrics.start();
             try {
-                log.info("Registering template '" + name + "'!");
-                var holder = Holder.of(regTemplate);
-                defaultProperties.put(name, () -> {
-                    var template = holder.get();
+                Trace.event("registerTemplate", name);
+                //Jar templates are served from their snapshot, PSI is only read when the snapshot is missing
+                var snapshot = loadTemplateSnapshot(regTemplate);
+                if (nonNull(snapshot)) {
+                    for (var ann : snapshot.getAnnotations()) {
+                        addTemplateDependency(project, ann.getName(), name);
+                    }
+                } else {
+                    stamp(regTemplate);
+                    for (var ann : regTemplate.getAnnotations()) {
+                        addTemplateDependency(project, ann.getQualifiedName(), name);
+                    }
+                }
+                var holder = Holder.of(SmartPointerManager.createPointer(regTemplate));
+                defaultProperties.put(name, nonNull(snapshot) ? () -> buildTemplate(project, name, snapshot) : () -> {
+                    var template = holder.get().getElement();
+                    if (isNull(template)) {
+                        template = findClass(project, name).orElseThrow(() -> new IllegalStateException("Unable to refresh template - " + name));
+                        holder.set(SmartPointerManager.createPointer(template));
+                    }
                     try {
                         var parent = Arrays.stream(template.getAnnotations())
                                 .filter(a -> defaultProperties.containsKey(a.getQualifiedName()))
@@ -1004,26 +1272,154 @@ public class Lookup {
                                         case "generateImplementation" -> builder.generateImplementation(handleBooleanExpression(method.getDefaultValue()));
                                         case "implementationPackage" -> builder.classPackage(handleStringExpression(method.getDefaultValue()));
                                         case "strategy" -> builder.strategy(handleEnumExpression(method.getDefaultValue(), GenerationStrategy.class));
-                                        default -> builder.custom(method.getName(), method.getDefaultValue());
+                                        default -> builder.custom(method.getName(), detachValue(method.getDefaultValue()));
                                     }
                                 });
 
                         return builder;
                     } catch (PsiInvalidElementAccessException e) {
-                        holder.set(findClass(name).orElseThrow(() -> new IllegalStateException("Unable to refresh template - " + name, e)));
+                        holder.set(SmartPointerManager.createPointer(findClass(project, name).orElseThrow(() -> new IllegalStateException("Unable to refresh template - " + name, e))));
                         return defaultProperties.get(name).get();
                     }
                 });
-                prototypes.clear();
-                classes.clear();
-                generated.clear();
-                nonTemplates = initNonTemplates();
+                invalidateDependents(project, name);
             } finally {
                 registeringTemplate.set(false);
+                Metrics.stop("lookup.registerTemplate", start);
             }
         }
     }
 
+    protected static TemplateSnapshot loadTemplateSnapshot(PsiClass template) {
+        var jar = withRes(template.getContainingFile(), file -> withRes(file.getVirtualFile(), VfsUtilCore::getVirtualFileForJar));
+        if (nonNull(jar)) {
+            var service = CodeGenApplicationService.getInstance();
+            Metrics.count("lookup.templateSnapshot.jar");
+            return service.getTemplate(service.key(jar), template.getQualifiedName(), () -> snapshotTemplate(template));
+        }
+        return null;
+    }
+
+    protected static TemplateSnapshot snapshotTemplate(PsiClass template) {
+        var result = new TemplateSnapshot();
+        for (var ann : template.getAnnotations()) {
+            var values = new TemplateSnapshot.Values();
+            values.setName(ann.getQualifiedName());
+            for (var pair : ann.getParameterList().getAttributes()) {
+                snapshotValue(values, nonNull(pair.getName()) ? pair.getName() : "value", pair.getValue());
+            }
+            result.getAnnotations().add(values);
+        }
+
+        var methods = template instanceof PsiExtensibleClass ext ? ext.getOwnMethods().stream() : Arrays.stream(template.getMethods());
+        methods.filter(PsiAnnotationMethod.class::isInstance)
+                .map(PsiAnnotationMethod.class::cast)
+                .filter(m -> nonNull(m.getDefaultValue()))
+                .forEach(method -> snapshotValue(result.getDefaults(), method.getName(), method.getDefaultValue()));
+        return result;
+    }
+
+    protected static void snapshotValue(TemplateSnapshot.Values values, String attribute, PsiAnnotationMemberValue value) {
+        switch (attribute) {
+            case "enrichers" -> values.setEnrichers(snapshotClasses(value));
+            case "inheritedEnrichers" -> values.setInheritedEnrichers(snapshotClasses(value));
+            default -> {
+                if (!TEMPLATE_ATTRIBUTES.contains(attribute)) {
+                    values.getCustom().put(attribute, TemplateSnapshot.Value.of(detachValue(value)));
+                } else if (value instanceof PsiLiteralExpression exp && nonNull(exp.getValue())) {
+                    values.getAttributes().put(attribute, exp.getValue().toString());
+                } else if (value instanceof PsiReferenceExpression exp && nonNull(exp.getReferenceName())) {
+                    values.getAttributes().put(attribute, exp.getReferenceName());
+                }
+            }
+        }
+    }
+
+    protected static List<String> snapshotClasses(PsiAnnotationMemberValue value) {
+        var result = new ArrayList<String>();
+        if (value instanceof PsiClassObjectAccessExpression exp) {
+            result.add(exp.getOperand().getType().getCanonicalText());
+        } else if (value instanceof PsiArrayInitializerMemberValue exp) {
+            for (var val : exp.getInitializers()) {
+                result.addAll(snapshotClasses(val));
+            }
+        }
+        return result;
+    }
+
+    protected static PrototypeDataHandler.PrototypeDataHandlerBuilder buildTemplate(Project project, String name, TemplateSnapshot snapshot) {
+        var defaultProperties = registry(project).getDefaultProperties();
+        var parent = snapshot.getAnnotations().stream()
+                .filter(a -> defaultProperties.containsKey(a.getName()))
+                .findFirst();
+
+        var builder = parent.isPresent() ? defaultProperties.get(parent.get().getName()).get() : defaultBuilder();
+
+        parent.ifPresent(a -> {
+            readSnapshotAnnotation(a, builder);
+            readSnapshotEnrichers(project, name, a, builder);
+        });
+
+        if (EnumPrototype.class.getCanonicalName().equals(name)) {
+            builder.custom("enum", true);
+        }
+
+        snapshot.getDefaults().getAttributes().forEach((attribute, value) -> {
+            switch (attribute) {
+                case "base" -> builder.base(Boolean.parseBoolean(value));
+                case "name" -> builder.name(value);
+                case "generateConstructor" -> builder.generateConstructor(Boolean.parseBoolean(value));
+                case "interfaceName" -> builder.interfaceName(value);
+                case "implementationPath" -> builder.implementationPath(value);
+                case "interfaceSetters" -> builder.interfaceSetters(Boolean.parseBoolean(value));
+                case "classGetters" -> builder.classGetters(Boolean.parseBoolean(value));
+                case "classSetters" -> builder.classSetters(Boolean.parseBoolean(value));
+                case "interfacePath" -> builder.interfacePath(value);
+                case "generateInterface" -> builder.generateInterface(Boolean.parseBoolean(value));
+                case "basePath" -> builder.basePath(value);
+                case "generateImplementation" -> builder.generateImplementation(Boolean.parseBoolean(value));
+                case "implementationPackage" -> builder.classPackage(value);
+                case "strategy" -> builder.strategy(PrototypeUtil.readEnumValue(value, GenerationStrategy.class));
+                default -> {
+                    //Custom defaults are kept typed in the custom values
+                }
+            }
+        });
+        snapshot.getDefaults().getCustom().forEach((attribute, value) -> builder.custom(attribute, value.toObject()));
+        readSnapshotEnrichers(project, name, snapshot.getDefaults(), builder);
+
+        return builder;
+    }
+
+    protected static void readSnapshotEnrichers(Project project, String template, TemplateSnapshot.Values values, PrototypeDataHandler.PrototypeDataHandlerBuilder builder) {
+        with(values.getEnrichers(), list -> builder.custom("enrichers", resolveEnrichers(project, template, list)));
+        with(values.getInheritedEnrichers(), list -> builder.custom("inheritedEnrichers", resolveEnrichers(project, template, list)));
+    }
+
+    protected static List<EnricherData> resolveEnrichers(Project project, String template, List<String> names) {
+        var result = new ArrayList<EnricherData>();
+        names.forEach(n -> findClass(project, n).ifPresent(cls -> {
+            addDependency(project, n, template);
+            result.add(buildEnricherData(cls));
+        }));
+        return result;
+    }
+
+    protected static Object detachValue(Object value) {
+        if (value instanceof PsiNameValuePair pair) {
+            return detachValue(pair.getValue());
+        } else if (value instanceof PsiLiteralExpression exp) {
+            return exp.getValue();
+        } else if (value instanceof PsiClassObjectAccessExpression exp) {
+            return exp.getOperand().getType().getCanonicalText();
+        } else if (value instanceof PsiArrayInitializerMemberValue exp) {
+            return Arrays.stream(exp.getInitializers()).map(Lookup::detachValue).toList();
+        } else if (value instanceof PsiElement element) {
+            return element.getText();
+        }
+        return value;
+    }
+
     protected static boolean handleBooleanExpression(PsiAnnotationMemberValue value) {
         if (value instanceof PsiLiteralExpression exp) {
             return (Boolean) exp.getValue();
@@ -1051,39 +1447,10 @@ public class Lookup {
     public static Set<Module> refreshCache(Project project, VirtualFile file) {
         var result = new HashSet<Module>();
 
-        with(PsiTreeUtil.getChildrenOfType(PsiManager.getInstance(project).findFile(file), PsiClass.class), array ->
-                Arrays.stream(array)
-                        .forEach(cls -> {
-                            var proto = false;
-                            var clazz = false;
-                            var name = cls.getQualifiedName();
-
-                            if (nonNull(classes.remove(name))) {
-                                log.info("Removing class '" + name + "' from classes cache!");
-                                clazz = true;
-                            }
-                            if (nonNull(prototypes.remove(name))) {
-                                log.info("Removing class '" + name + "' from prototypes cache!");
-                                proto = true;
-                            }
-                            if (nonTemplates.remove(name)) {
-                                log.info("Removing class '" + name + "' from nonTemplates cache!");
-                            }
-                            if (nonNull(generated.remove(name))) {
-                                log.info("Removing class '" + name + "' from generated cache!");
-                                clazz = true;
-                            }
-                            if (nonGenerated.remove(name)) {
-                                log.info("Removing class '" + name + "' from nonGenerated cache!");
-                                clazz = true;
-                            }
-                            if (proto) {
-                                Lookup.processPrototype(name);
-                            }
-                            if (clazz) {
-                                Lookup.findClass(name).ifPresent(Lookup::registerClass);
-                            }
-                        }));
+        registry(project).getStamped(file).forEach(name -> {
+            Trace.event("refreshCache", name);
+            invalidate(project, name);
+        });
 
         return result;
     }
@@ -1119,11 +1486,12 @@ public class Lookup {
         return result;
     }
 
-    public static ValidationDescription isValidationAnnotation(String name) {
-        var data = validators.get(name);
+    public static ValidationDescription isValidationAnnotation(Project project, String name) {
+        validate(project, name);
+        var data = registry(project).getValidators().get(name);
 
         if (isNull(data)) {
-            data = registerValidator(name);
+            data = registerValidator(project, name);
         }
 
         return data.isValidationAnnotation() ? data : null;
@@ -1133,59 +1501,58 @@ public class Lookup {
         return withRes(data.getCustom(), custom -> withRes(custom.get("enum"), Boolean.class::cast, false), false);
     }
 
-    public static ValidationDescription registerValidator(String name) {
+    public static ValidationDescription registerValidator(Project project, String name) {
+        var validators = registry(project).getValidators();
         if (validators.size() < 3) {
             validators.compute("net.binis.codegen.annotation.validation.Validate", (k, v) ->
                     ValidationDescription.builder()
-                            .cls(findClass(k).orElse(null))
+                            .clsName(findClass(project, k).map(PsiClass::getQualifiedName).orElse(null))
                             .validator(true)
                             .targets(Collections.emptyList())
                             .build());
             validators.compute("net.binis.codegen.annotation.validation.Sanitize", (k, v) ->
                     ValidationDescription.builder()
-                            .cls(findClass(k).orElse(null))
+                            .clsName(findClass(project, k).map(PsiClass::getQualifiedName).orElse(null))
                             .sanitizer(true)
                             .targets(Collections.emptyList())
                             .build());
             validators.compute("net.binis.codegen.annotation.validation.Execute", (k, v) ->
                     ValidationDescription.builder()
-                            .cls(findClass(k).orElse(null))
+                            .clsName(findClass(project, k).map(PsiClass::getQualifiedName).orElse(null))
                             .executor(true)
                             .targets(Collections.emptyList())
                             .build());
         }
 
-        processing.add(name);
-        try {
+        return registry(project).getValidations().compute(name, () -> {
             var data = validators.get(name);
             if (isNull(data)) {
-                var cls = findClass(name);
+                var cls = findClass(project, name);
                 if (cls.isPresent() && cls.get().isAnnotationType()) {
                     for (var ann : cls.get().getAnnotations()) {
-                        if (!processing.contains(ann.getQualifiedName())) {
-                            var d = validators.get(ann.getQualifiedName());
-                            if (isNull(d)) {
-                                d = registerValidator(ann.getQualifiedName());
+                        var d = validators.get(ann.getQualifiedName());
+                        if (isNull(d)) {
+                            d = registerValidator(project, ann.getQualifiedName());
+                        }
+                        if (d.isValidationAnnotation()) {
+                            var targets = d.getTargets();
+                            var methods = cls.get().findMethodsByName("targets", false);
+                            if (methods.length > 0) {
+                                targets = processTargets(project, null);
+                            } else {
+                                targets = withRes(processTargets(project, ann.findAttributeValue("targets")), value -> value, targets);
                             }
-                            if (d.isValidationAnnotation()) {
-                                var targets = d.getTargets();
-                                var methods = cls.get().findMethodsByName("targets", false);
-                                if (methods.length > 0) {
-                                    targets = processTargets(null);
-                                } else {
-                                    targets = withRes(processTargets(ann.findAttributeValue("targets")), value -> value, targets);
-                                }
 
-                                d = ValidationDescription.builder()
-                                        .cls(cls.get())
-                                        .validator(d.isValidator())
-                                        .sanitizer(d.isSanitizer())
-                                        .executor(d.isExecutor())
-                                        .targets(targets)
-                                        .build();
-                                validators.put(name, d);
-                                return d;
-                            }
+                            stamp(cls.get());
+                            d = ValidationDescription.builder()
+                                    .clsName(name)
+                                    .validator(d.isValidator())
+                                    .sanitizer(d.isSanitizer())
+                                    .executor(d.isExecutor())
+                                    .targets(targets)
+                                    .build();
+                            validators.put(name, d);
+                            return d;
                         }
                     }
                 }
@@ -1193,41 +1560,61 @@ public class Lookup {
             }
 
             return data;
-        } finally {
-            processing.remove(name);
-        }
+        }, ValidationDescription.builder().build());
     }
 
     public static ValidationDescription processTargets(PsiAnnotation annotation, ValidationDescription data) {
-        if (nonNull(data.cls)) {
-            var attr = annotation.findAttributeValue("targets");
-            if (nonNull(attr)) {
+        if (nonNull(data.clsName)) {
+            //Only the annotation's own targets are cached, the validator description always comes from the registry
+            var declared = CachedValuesManager.getProjectPsiDependentCache(annotation, Lookup::readTargets);
+            if (nonNull(declared)) {
                 return ValidationDescription.builder()
-                        .cls(data.cls)
+                        .clsName(data.clsName)
                         .validator(data.validator)
                         .sanitizer(data.sanitizer)
                         .executor(data.executor)
-                        .targets(processTargets(attr))
+                        .targets(declared.targets())
                         .build();
             }
         }
         return data;
     }
 
-    protected static List<String> processTargets(PsiAnnotationMemberValue attr) {
+    protected static DeclaredTargets readTargets(PsiAnnotation annotation) {
+        var attr = annotation.findAttributeValue("targets");
+        return nonNull(attr) ? new DeclaredTargets(processTargets(annotation.getProject(), attr)) : null;
+    }
+
+    public static boolean isTargetAssignable(String target, PsiType type, PsiElement context) {
+        var key = new TargetKey(target, type.getCanonicalText(), context.getResolveScope());
+        return registry(context.getProject()).getAssignability().getValue().computeIfAbsent(key, k -> {
+            if (target.equals(k.type())) {
+                return true;
+            }
+            try {
+                return PsiType.getTypeByName(target, context.getProject(), k.scope()).isAssignableFrom(type);
+            } catch (ProcessCanceledException e) {
+                throw e;
+            } catch (Exception e) {
+                return false;
+            }
+        });
+    }
+
+    protected static List<String> processTargets(Project project, PsiAnnotationMemberValue attr) {
         if (nonNull(attr)) {
             if (attr instanceof PsiArrayInitializerMemberValue init) {
                 var result = new ArrayList<String>();
                 for (var i : init.getInitializers()) {
                     if (i instanceof PsiClassObjectAccessExpression exp) {
-                        processTarget(result, exp.getOperand().getType().getCanonicalText());
+                        processTarget(project, result, exp.getOperand().getType().getCanonicalText());
                     }
                 }
                 return result;
             }
             if (attr instanceof PsiClassObjectAccessExpression exp) {
                 var result = new ArrayList<String>();
-                processTarget(result, exp.getOperand().getType().getCanonicalText());
+                processTarget(project, result, exp.getOperand().getType().getCanonicalText());
                 return result;
             }
         }
@@ -1235,18 +1622,82 @@ public class Lookup {
         return null;
     }
 
-    protected static void processTarget(List<String> result, String name) {
-        findClass(name).ifPresentOrElse(cls ->
-                Arrays.stream(cls.getImplementsListTypes())
-                        .filter(t -> "net.binis.codegen.validation.consts.ValidationTargets.TargetsAware".equals(t.getCanonicalText()))
-                        .findFirst()
-                        .ifPresentOrElse(t ->
-                                processTargetAware(result, name), () -> result.add(name)), () -> result.add(name));
+    protected static void processTarget(Project project, List<String> result, String name) {
+        var targets = getTargetsAware(project, name);
+        if (nonNull(targets)) {
+            result.addAll(targets);
+        } else {
+            result.add(name);
+        }
+    }
+
+    /**
+     * Targets declared by a TargetsAware class, or null if the class isn't one or its targets can't be read.
+     */
+    public static List<String> getTargetsAware(Project project, String name) {
+        var targets = getLibraryTargetsAware(project).get(name);
+        if (nonNull(targets)) {
+            return targets;
+        }
+        return findClass(project, name)
+                .filter(cls -> !(cls instanceof PsiCompiledElement))
+                .map(Lookup::getSourceTargetsAware)
+                .orElse(null);
     }
 
-    protected static void processTargetAware(List<String> result, String name) {
-        //TODO: Proper target aware handling
-        with(knownTargetAwareClasses.get(name), result::addAll);
+    public static Map<String, List<String>> getLibraryTargetsAware(Project project) {
+        return CachedValuesManager.getManager(project).getCachedValue(project, () ->
+                CachedValueProvider.Result.create(findLibraryTargetsAware(project), ProjectRootModificationTracker.getInstance(project)));
+    }
+
+    protected static Map<String, List<String>> findLibraryTargetsAware(Project project) {
+        var result = new HashMap<>(knownTargetAwareClasses);
+        findClass(project, TARGETS_AWARE).ifPresent(aware -> {
+            for (var cls : ClassInheritorsSearch.search(aware, ProjectScope.getLibrariesScope(project), true).findAll()) {
+                var name = cls.getQualifiedName();
+                if (nonNull(name)) {
+                    //Compiled classes have no method bodies, read the attached sources instead
+                    var targets = readDeclaredTargets(cls.getNavigationElement() instanceof PsiClass source ? source : cls);
+                    if (!targets.isEmpty()) {
+                        result.put(name, targets);
+                    } else if (!result.containsKey(name)) {
+                        reportUnresolvedTargets(name);
+                    }
+                }
+            }
+        });
+        return result;
+    }
+
+    protected static List<String> getSourceTargetsAware(PsiClass cls) {
+        return CachedValuesManager.getCachedValue(cls, () -> {
+            List<String> result = null;
+            if (InheritanceUtil.isInheritor(cls, TARGETS_AWARE)) {
+                var targets = readDeclaredTargets(cls);
+                if (targets.isEmpty()) {
+                    reportUnresolvedTargets(cls.getQualifiedName());
+                } else {
+                    result = targets;
+                }
+            }
+            return CachedValueProvider.Result.create(result, cls, ProjectRootModificationTracker.getInstance(cls.getProject()));
+        });
+    }
+
+    protected static void reportUnresolvedTargets(String name) {
+        if (nonNull(name) && unresolvedTargetsAware.add(name)) {
+            log.warn("Unable to read validation targets of '" + name + "', it is treated as a target itself");
+        }
+    }
+
+    protected static List<String> readDeclaredTargets(PsiClass cls) {
+        var result = new ArrayList<String>();
+        for (var method : cls.findMethodsByName("targets", false)) {
+            with(method.getBody(), body ->
+                    PsiTreeUtil.findChildrenOfType(body, PsiClassObjectAccessExpression.class).forEach(exp ->
+                            result.add(exp.getOperand().getType().getCanonicalText())));
+        }
+        return result;
     }
 
     @Builder
@@ -1254,6 +1705,7 @@ public class Lookup {
     public static class LookupDescription {
         private PrototypeData prototype;
         private String clsName;
+        private String template;
 
         public boolean isPrototype() {
             return nonNull(prototype);
@@ -1263,7 +1715,7 @@ public class Lookup {
     @Builder
     @Data
     public static class ValidationDescription {
-        private PsiClass cls;
+        private String clsName;
         private List<String> targets;
         private boolean executor;
         private boolean validator;
@@ -0,0 +1,124 @@
+package net.binis.intellij.tools;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.registry.Registry;
+import net.binis.intellij.services.CodeGenProjectService;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.Objects.nonNull;
+
+public class Metrics {
+
+    public static final String ENABLED_KEY = "binis.codegen.metrics.enabled";
+    private static final int BUCKETS = 32;
+
+    private static final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private static final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+
+    public static boolean isEnabled() {
+        return Registry.is(ENABLED_KEY, false);
+    }
+
+    public static void count(String name) {
+        if (isEnabled()) {
+            counters.computeIfAbsent(name, k -> new LongAdder()).increment();
+        }
+    }
+
+    /**
+     * Returns the start of a timed section, or 0 when metrics are disabled.
+     */
+    public static long start() {
+        return isEnabled() ? System.nanoTime() : 0L;
+    }
+
+    public static void stop(String name, long start) {
+        if (start != 0L) {
+            histograms.computeIfAbsent(name, k -> new Histogram()).record(System.nanoTime() - start);
+        }
+    }
+
+    public static void reset() {
+        counters.clear();
+        histograms.clear();
+    }
+
+    public static String toJson(Project project) {
+        var result = new StringBuilder("{\n  \"enabled\": ").append(isEnabled()).append(",\n  \"counters\": {");
+        var first = true;
+        for (var entry : new TreeMap<>(counters).entrySet()) {
+            result.append(first ? "\n" : ",\n").append("    ").append(quote(entry.getKey())).append(": ").append(entry.getValue().sum());
+            first = false;
+        }
+        result.append("\n  },\n  \"histograms\": {");
+        first = true;
+        for (var entry : new TreeMap<>(histograms).entrySet()) {
+            result.append(first ? "\n" : ",\n").append("    ").append(quote(entry.getKey())).append(": ");
+            entry.getValue().toJson(result);
+            first = false;
+        }
+        result.append("\n  }");
+        if (nonNull(project)) {
+            result.append(",\n  \"caches\": {");
+            first = true;
+            for (var stats : CodeGenProjectService.getInstance(project).getCacheStats()) {
+                result.append(first ? "\n" : ",\n").append("    ").append(quote(stats.name()))
+                        .append(": {\"size\": ").append(stats.size())
+                        .append(", \"hits\": ").append(stats.hits())
+                        .append(", \"misses\": ").append(stats.misses())
+                        .append(", \"evictions\": ").append(stats.evictions()).append("}");
+                first = false;
+            }
+            result.append("\n  }");
+        }
+        return result.append("\n}\n").toString();
+    }
+
+    protected static String quote(String value) {
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    /**
+     * Latency histogram with power of two microsecond buckets.
+     */
+    protected static class Histogram {
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder total = new LongAdder();
+        private final AtomicLong max = new AtomicLong();
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+        public void record(long nanos) {
+            count.increment();
+            total.add(nanos);
+            max.accumulateAndGet(nanos, Math::max);
+            var micros = nanos / 1000;
+            buckets.incrementAndGet(Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros)));
+        }
+
+        protected void toJson(StringBuilder builder) {
+            var cnt = count.sum();
+            builder.append("{\"count\": ").append(cnt)
+                    .append(", \"totalMs\": ").append(total.sum() / 1_000_000)
+                    .append(", \"meanUs\": ").append(cnt > 0 ? total.sum() / cnt / 1000 : 0)
+                    .append(", \"maxUs\": ").append(max.get() / 1000)
+                    .append(", \"buckets\": {");
+            var first = true;
+            for (var i = 0; i < BUCKETS; i++) {
+                var value = buckets.get(i);
+                if (value > 0) {
+                    builder.append(first ? "" : ", ").append("\"<").append(1L << i).append("us\": ").append(value);
+                    first = false;
+                }
+            }
+            builder.append("}}");
+        }
+    }
+
+}
@@ -0,0 +1,95 @@
+package net.binis.intellij.tools;
+
+import com.intellij.openapi.util.registry.Registry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Sampled trace events kept in a bounded in-memory ring buffer. Disabled unless the registry key is set.
+ */
+public class Trace {
+
+    public static final String ENABLED_KEY = "binis.codegen.trace.enabled";
+    public static final String SAMPLE_KEY = "binis.codegen.trace.sample";
+    public static final String SIZE_KEY = "binis.codegen.trace.size";
+
+    public record Event(long time, String thread, String type, String subject) {}
+
+    private static final AtomicLong sequence = new AtomicLong();
+    private static volatile AtomicReferenceArray<Event> buffer;
+
+    public static boolean isEnabled() {
+        return Registry.is(ENABLED_KEY, false);
+    }
+
+    public static void event(String type, String subject) {
+        if (isEnabled()) {
+            var sample = Registry.intValue(SAMPLE_KEY, 1);
+            if (sample <= 1 || ThreadLocalRandom.current().nextInt(sample) == 0) {
+                var events = buffer();
+                events.set((int) (sequence.getAndIncrement() % events.length()), new Event(System.currentTimeMillis(), Thread.currentThread().getName(), type, subject));
+            }
+        }
+    }
+
+    public static List<Event> getEvents() {
+        var events = buffer;
+        var result = new ArrayList<Event>();
+        if (nonNull(events)) {
+            var end = sequence.get();
+            for (var i = Math.max(0, end - events.length()); i < end; i++) {
+                var event = events.get((int) (i % events.length()));
+                if (nonNull(event)) {
+                    result.add(event);
+                }
+            }
+        }
+        return result;
+    }
+
+    public static void clear() {
+        buffer = null;
+        sequence.set(0);
+    }
+
+    public static String toJson() {
+        var result = new StringBuilder("[");
+        var first = true;
+        for (var event : getEvents()) {
+            result.append(first ? "\n" : ",\n")
+                    .append("  {\"time\": ").append(event.time())
+                    .append(", \"thread\": ").append(Metrics.quote(event.thread()))
+                    .append(", \"type\": ").append(Metrics.quote(event.type()))
+                    .append(", \"subject\": ").append(Metrics.quote(String.valueOf(event.subject()))).append("}");
+            first = false;
+        }
+        return result.append("\n]\n").toString();
+    }
+
+    /**
+     * Returns the ring buffer, reallocating it (and dropping recorded events) when the size registry key changes.
+     */
+    protected static AtomicReferenceArray<Event> buffer() {
+        var size = Math.max(16, Registry.intValue(SIZE_KEY, 10000));
+        var events = buffer;
+        if (isNull(events) || events.length() != size) {
+            synchronized (Trace.class) {
+                events = buffer;
+                if (isNull(events) || events.length() != size) {
+                    events = new AtomicReferenceArray<>(size);
+                    sequence.set(0);
+                    buffer = events;
+                }
+            }
+        }
+        return events;
+    }
+
+}
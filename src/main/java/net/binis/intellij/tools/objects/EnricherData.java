@@ -1,7 +1,5 @@
 package net.binis.intellij.tools.objects;
 
-import com.intellij.psi.PsiClass;
-import com.intellij.psi.PsiParameter;
 import lombok.Builder;
 import lombok.Data;
 import net.binis.codegen.annotation.augment.AugmentTargetType;
@@ -11,14 +9,12 @@ import net.binis.codegen.tools.Interpolator;
 
 import java.lang.reflect.Modifier;
 import java.util.List;
-import java.util.function.Function;
-import java.util.stream.Stream;
 
 @Data
 @Builder
 public class EnricherData {
 
-    protected PsiClass cls;
+    protected String clsName;
     protected AugmentType adds;
     @Builder.Default
     protected List<AugmentTargetType> targets = List.of(AugmentTargetType.EVERYTHING);
@@ -31,7 +27,7 @@ public class EnricherData {
     @Builder.Default
     protected long modifier = Modifier.PUBLIC;
     protected List<Parameter> parameters;
-    protected Function<PsiClass, Stream<PsiParameter>> filter;
+    protected EnricherFilter filter;
     protected Interpolator suppresses;
     protected Interpolator paramsSuppresses;
     protected List<String> description;
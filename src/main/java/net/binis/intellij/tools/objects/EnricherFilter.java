@@ -0,0 +1,115 @@
+package net.binis.intellij.tools.objects;
+
+import com.intellij.openapi.util.Key;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiModifierList;
+import com.intellij.psi.PsiParameter;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import net.binis.intellij.objects.CodeGenLightParameter;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Enricher parameter filter compiled from a spec like {@code FIELDS|PUBLIC|!STATIC}. The matching parameters are
+ * cached on the filtered class until its file changes.
+ */
+public class EnricherFilter implements Function<PsiClass, List<PsiParameter>> {
+
+    private static final Set<String> MODIFIERS = Set.of("PUBLIC", "PRIVATE", "PROTECTED", "STATIC", "FINAL", "ABSTRACT", "TRANSIENT", "VOLATILE", "SYNCHRONIZED", "NATIVE", "STRICTFP", "DEFAULT");
+    private static final Map<String, Optional<EnricherFilter>> filters = new ConcurrentHashMap<>();
+
+    private final boolean fields;
+    private final String[] required;
+    private final String[] excluded;
+    private final Boolean initialized;
+    private final Key<CachedValue<List<PsiParameter>>> key;
+
+    protected EnricherFilter(String spec, boolean fields, String[] required, String[] excluded, Boolean initialized) {
+        this.fields = fields;
+        this.required = required;
+        this.excluded = excluded;
+        this.initialized = initialized;
+        this.key = Key.create("binis.enricher.filter." + spec);
+    }
+
+    public static EnricherFilter of(String spec) {
+        return filters.computeIfAbsent(spec, EnricherFilter::compile).orElse(null);
+    }
+
+    protected static Optional<EnricherFilter> compile(String spec) {
+        var segments = spec.split("\\|");
+        var fields = "FIELDS".equals(segments[0]);
+        if (!fields && !"METHODS".equals(segments[0])) {
+            return Optional.empty();
+        }
+
+        var required = new ArrayList<String>();
+        var excluded = new ArrayList<String>();
+        Boolean initialized = null;
+        for (var i = 1; i < segments.length; i++) {
+            var negate = segments[i].startsWith("!");
+            var name = negate ? segments[i].substring(1) : segments[i];
+            if ("INITIALIZED".equals(name)) {
+                initialized = !negate;
+            } else if (MODIFIERS.contains(name)) {
+                (negate ? excluded : required).add(name.toLowerCase());
+            }
+        }
+
+        return Optional.of(new EnricherFilter(spec, fields, required.toArray(String[]::new), excluded.toArray(String[]::new), initialized));
+    }
+
+    @Override
+    public List<PsiParameter> apply(PsiClass cls) {
+        return CachedValuesManager.getCachedValue(cls, key, () ->
+                CachedValueProvider.Result.create(collect(cls), cls));
+    }
+
+    protected List<PsiParameter> collect(PsiClass cls) {
+        var result = new ArrayList<PsiParameter>();
+        if (fields) {
+            for (var field : cls.getFields()) {
+                if (test(field.getModifierList(), field.hasInitializer())) {
+                    result.add(new CodeGenLightParameter(field.getName(), field.getType(), field.getParent(), field.getModifierList(), field.hasInitializer()));
+                }
+            }
+        } else {
+            for (var method : cls.getMethods()) {
+                if (nonNull(method.getReturnType()) && test(method.getModifierList(), false)) {
+                    result.add(new CodeGenLightParameter(method.getName(), method.getReturnType(), method.getParent(), method.getModifierList(), false));
+                }
+            }
+        }
+        return result.isEmpty() ? Collections.emptyList() : Collections.unmodifiableList(result);
+    }
+
+    protected boolean test(PsiModifierList list, boolean init) {
+        if (nonNull(initialized) && initialized != init) {
+            return false;
+        }
+        if (required.length > 0 || excluded.length > 0) {
+            if (isNull(list)) {
+                return false;
+            }
+            for (var modifier : required) {
+                if (!list.hasExplicitModifier(modifier)) {
+                    return false;
+                }
+            }
+            for (var modifier : excluded) {
+                if (list.hasExplicitModifier(modifier)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,37 @@
+package net.binis.intellij.tools.objects;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiManager;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+public record FileStamp(VirtualFile file, long stamp) {
+
+    public static FileStamp of(PsiElement element) {
+        var file = element.getContainingFile();
+        if (nonNull(file)) {
+            return new FileStamp(file.getVirtualFile(), file.getModificationStamp());
+        }
+        return new FileStamp(null, 0);
+    }
+
+    public static FileStamp of(Project project, VirtualFile file) {
+        var psi = PsiManager.getInstance(project).findFile(file);
+        return new FileStamp(file, nonNull(psi) ? psi.getModificationStamp() : 0);
+    }
+
+    public boolean isValid(Project project) {
+        if (isNull(file)) {
+            return true;
+        }
+        if (!file.isValid()) {
+            return false;
+        }
+        var psi = PsiManager.getInstance(project).findFile(file);
+        return nonNull(psi) && psi.getModificationStamp() == stamp;
+    }
+
+}
@@ -0,0 +1,74 @@
+package net.binis.intellij.tools.objects;
+
+import com.intellij.openapi.progress.util.ProgressIndicatorUtils;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Runs at most one computation per key at a time. Concurrent callers for the same key wait (cancellable) for the
+ * running computation and share its result, while re-entrant calls from the computing thread get the recursive value.
+ * A thread that is already inside a computation never waits for another thread, it computes the value itself instead,
+ * so cross-thread cycles can't deadlock.
+ */
+public class InFlight<K, V> {
+
+    private static final ThreadLocal<int[]> depth = ThreadLocal.withInitial(() -> new int[1]);
+
+    private final Map<K, CompletableFuture<V>> running = new ConcurrentHashMap<>();
+    private final ThreadLocal<Set<K>> active = ThreadLocal.withInitial(HashSet::new);
+
+    public V compute(K key, Supplier<V> supplier, V recursive) {
+        if (active.get().contains(key)) {
+            return recursive;
+        }
+
+        var future = new CompletableFuture<V>();
+        var existing = running.putIfAbsent(key, future);
+        if (isNull(existing)) {
+            try {
+                var result = run(key, supplier);
+                future.complete(result);
+                return result;
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+                throw e;
+            } finally {
+                running.remove(key, future);
+            }
+        }
+
+        if (depth.get()[0] > 0) {
+            return run(key, supplier);
+        }
+
+        try {
+            return ProgressIndicatorUtils.awaitWithCheckCanceled(existing);
+        } catch (RuntimeException e) {
+            if (existing.isCompletedExceptionally()) {
+                return compute(key, supplier, recursive);
+            }
+            throw e;
+        }
+    }
+
+    private V run(K key, Supplier<V> supplier) {
+        var keys = active.get();
+        var level = depth.get();
+        keys.add(key);
+        level[0]++;
+        try {
+            return supplier.get();
+        } finally {
+            level[0]--;
+            keys.remove(key);
+        }
+    }
+
+}
@@ -0,0 +1,198 @@
+package net.binis.intellij.tools.objects;
+
+import java.lang.ref.SoftReference;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.IntSupplier;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Size bounded map with approximate LRU eviction. Values can be held through soft references so the GC can reclaim
+ * them under memory pressure. Keeps hit, miss and eviction counters.
+ */
+public class LookupCache<K, V> extends AbstractMap<K, V> {
+
+    public record Stats(String name, int size, long hits, long misses, long evictions) {}
+
+    private static final int ENTRY_OVERHEAD = 96;
+    private static final int OBJECT_OVERHEAD = 64;
+
+    public record EntryInfo<K>(K key, long created, int hits) {}
+
+    private final String name;
+    private final boolean soft;
+    private final IntSupplier maxSize;
+    private final Map<K, Node<V>> map = new ConcurrentHashMap<>();
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private BiConsumer<K, V> evictionListener = (k, v) -> {};
+
+    public LookupCache(String name, boolean soft, IntSupplier maxSize) {
+        this.name = name;
+        this.soft = soft;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Listener called with the evicted key and its value, the value is null if the GC already reclaimed it.
+     */
+    public LookupCache<K, V> onEviction(BiConsumer<K, V> listener) {
+        this.evictionListener = listener;
+        return this;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public V get(Object key) {
+        var node = map.get(key);
+        if (nonNull(node)) {
+            var value = node.value();
+            if (nonNull(value)) {
+                node.access = clock.incrementAndGet();
+                node.hits.incrementAndGet();
+                hits.increment();
+                return value;
+            }
+            if (map.remove(key, node)) {
+                evictions.increment();
+                evictionListener.accept((K) key, null);
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return nonNull(get(key));
+    }
+
+    /**
+     * Checks for a live entry without touching its access time or the cache stats.
+     */
+    public boolean peek(Object key) {
+        var node = map.get(key);
+        return nonNull(node) && nonNull(node.value());
+    }
+
+    @Override
+    public V put(K key, V value) {
+        var old = map.put(key, new Node<>(soft ? new SoftReference<>(value) : value, clock.incrementAndGet()));
+        evictIfNeeded();
+        return isNull(old) ? null : old.value();
+    }
+
+    @Override
+    public V remove(Object key) {
+        var old = map.remove(key);
+        return isNull(old) ? null : old.value();
+    }
+
+    @Override
+    public void clear() {
+        map.clear();
+    }
+
+    @Override
+    public int size() {
+        return map.size();
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        var result = new LinkedHashSet<Entry<K, V>>();
+        map.forEach((k, node) -> {
+            var value = node.value();
+            if (nonNull(value)) {
+                result.add(new SimpleImmutableEntry<>(k, value));
+            }
+        });
+        return result;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<EntryInfo<K>> getEntries() {
+        var result = new ArrayList<EntryInfo<K>>(map.size());
+        map.forEach((k, node) -> {
+            if (nonNull(node.value())) {
+                result.add(new EntryInfo<>(k, node.created, node.hits.get()));
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Rough estimate of the retained bytes, counting strings by length and any other value as a fixed size object.
+     */
+    public long getFootprint() {
+        var result = 0L;
+        for (var entry : map.entrySet()) {
+            var value = entry.getValue().value();
+            if (nonNull(value)) {
+                result += ENTRY_OVERHEAD + footprint(entry.getKey()) + (value instanceof Boolean ? 0 : footprint(value));
+            }
+        }
+        return result;
+    }
+
+    protected static long footprint(Object value) {
+        return value instanceof String s ? 40L + 2L * s.length() : OBJECT_OVERHEAD;
+    }
+
+    public Stats getStats() {
+        return new Stats(name, map.size(), hits.sum(), misses.sum(), evictions.sum());
+    }
+
+    protected void evictIfNeeded() {
+        var max = maxSize.getAsInt();
+        if (map.size() > max && evicting.compareAndSet(false, true)) {
+            try {
+                var excess = map.size() - max * 9 / 10;
+                record Candidate<K, V>(K key, Node<V> node, long access) {}
+                var candidates = new ArrayList<Candidate<K, V>>(map.size());
+                map.forEach((k, node) -> candidates.add(new Candidate<>(k, node, node.access)));
+                candidates.sort(Comparator.comparingLong(Candidate::access));
+                for (var i = 0; i < excess && i < candidates.size(); i++) {
+                    var candidate = candidates.get(i);
+                    if (map.remove(candidate.key(), candidate.node())) {
+                        evictions.increment();
+                        evictionListener.accept(candidate.key(), candidate.node().value());
+                    }
+                }
+            } finally {
+                evicting.set(false);
+            }
+        }
+    }
+
+    protected static class Node<V> {
+        private final Object value;
+        private final long created = System.currentTimeMillis();
+        private final AtomicInteger hits = new AtomicInteger();
+        private volatile long access;
+
+        protected Node(Object value, long access) {
+            this.value = value;
+            this.access = access;
+        }
+
+        @SuppressWarnings("unchecked")
+        protected V value() {
+            return value instanceof SoftReference<?> ref ? (V) ref.get() : (V) value;
+        }
+    }
+
+}
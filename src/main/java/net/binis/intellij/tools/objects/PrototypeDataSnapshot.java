@@ -0,0 +1,415 @@
+package net.binis.intellij.tools.objects;
+
+import com.github.javaparser.ast.expr.AnnotationExpr;
+import com.intellij.util.containers.Interner;
+import net.binis.codegen.annotation.type.GenerationStrategy;
+import net.binis.codegen.enrich.PrototypeEnricher;
+import net.binis.codegen.generation.core.interfaces.PrototypeData;
+import net.binis.codegen.options.CodeOption;
+
+import java.lang.annotation.Annotation;
+import java.util.*;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Immutable {@link PrototypeData} of a single class. Strings are interned, and collections and custom values equal to
+ * the template's are shared with it, so only the properties the class actually changes take extra memory.
+ */
+public class PrototypeDataSnapshot implements PrototypeData {
+
+    private static final Interner<String> names = Interner.createWeakInterner();
+
+    private final PrototypeData template;
+    private final Class<? extends Annotation> prototypeAnnotation;
+    private final AnnotationExpr prototypeAnnotationExpression;
+    private final String prototypeName;
+    private final String prototypeFullName;
+    private final String name;
+    private final String className;
+    private final String classPackage;
+    private final boolean classPackageSet;
+    private final boolean classGetters;
+    private final boolean classSetters;
+    private final String interfaceName;
+    private final String interfacePackage;
+    private final boolean interfaceSetters;
+    private final String modifierName;
+    private final String longModifierName;
+    private final String modifierPackage;
+    private final String baseClassName;
+    private final boolean generateConstructor;
+    private final boolean generateImplementation;
+    private final boolean generateInterface;
+    private final boolean base;
+    private final String baseModifierClass;
+    private final String mixInClass;
+    private final String basePath;
+    private final String interfacePath;
+    private final String implementationPath;
+    private final int ordinalOffset;
+    private final GenerationStrategy strategy;
+    private final List<PrototypeEnricher> enrichers;
+    private final List<PrototypeEnricher> inheritedEnrichers;
+    private final Set<Class<? extends CodeOption>> options;
+    private final Map<String, Object> custom;
+
+    protected PrototypeDataSnapshot(PrototypeData template, PrototypeData data) {
+        this.template = template;
+        this.prototypeAnnotation = data.getPrototypeAnnotation();
+        this.prototypeAnnotationExpression = data.getPrototypeAnnotationExpression();
+        this.prototypeName = intern(data.getPrototypeName());
+        this.prototypeFullName = intern(data.getPrototypeFullName());
+        this.name = intern(data.getName());
+        this.className = intern(data.getClassName());
+        this.classPackage = intern(data.getClassPackage());
+        this.classPackageSet = data.isClassPackageSet();
+        this.classGetters = data.isClassGetters();
+        this.classSetters = data.isClassSetters();
+        this.interfaceName = intern(data.getInterfaceName());
+        this.interfacePackage = intern(data.getInterfacePackage());
+        this.interfaceSetters = data.isInterfaceSetters();
+        this.modifierName = intern(data.getModifierName());
+        this.longModifierName = intern(data.getLongModifierName());
+        this.modifierPackage = intern(data.getModifierPackage());
+        this.baseClassName = intern(data.getBaseClassName());
+        this.generateConstructor = data.isGenerateConstructor();
+        this.generateImplementation = data.isGenerateImplementation();
+        this.generateInterface = data.isGenerateInterface();
+        this.base = data.isBase();
+        this.baseModifierClass = intern(data.getBaseModifierClass());
+        this.mixInClass = intern(data.getMixInClass());
+        this.basePath = intern(data.getBasePath());
+        this.interfacePath = intern(data.getInterfacePath());
+        this.implementationPath = intern(data.getImplementationPath());
+        this.ordinalOffset = data.getOrdinalOffset();
+        this.strategy = data.getStrategy();
+        this.enrichers = share(data.getEnrichers(), template.getEnrichers());
+        this.inheritedEnrichers = share(data.getInheritedEnrichers(), template.getInheritedEnrichers());
+        this.options = share(data.getOptions(), template.getOptions());
+        this.custom = CustomMap.of(data.getCustom(), template.getCustom());
+    }
+
+    public static PrototypeData of(PrototypeData template, PrototypeData data) {
+        if (isNull(template) || isNull(data)) {
+            return data;
+        }
+        return new PrototypeDataSnapshot(template, data);
+    }
+
+    public static String intern(String name) {
+        return isNull(name) ? null : names.intern(name);
+    }
+
+    public PrototypeData getTemplate() {
+        return template;
+    }
+
+    @Override
+    public Class<? extends Annotation> getPrototypeAnnotation() {
+        return prototypeAnnotation;
+    }
+
+    @Override
+    public AnnotationExpr getPrototypeAnnotationExpression() {
+        return prototypeAnnotationExpression;
+    }
+
+    @Override
+    public String getPrototypeName() {
+        return prototypeName;
+    }
+
+    @Override
+    public String getPrototypeFullName() {
+        return prototypeFullName;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String getClassName() {
+        return className;
+    }
+
+    @Override
+    public String getClassPackage() {
+        return classPackage;
+    }
+
+    @Override
+    public boolean isClassPackageSet() {
+        return classPackageSet;
+    }
+
+    @Override
+    public boolean isClassGetters() {
+        return classGetters;
+    }
+
+    @Override
+    public boolean isClassSetters() {
+        return classSetters;
+    }
+
+    @Override
+    public String getInterfaceName() {
+        return interfaceName;
+    }
+
+    @Override
+    public String getInterfacePackage() {
+        return interfacePackage;
+    }
+
+    @Override
+    public boolean isInterfaceSetters() {
+        return interfaceSetters;
+    }
+
+    @Override
+    public String getModifierName() {
+        return modifierName;
+    }
+
+    @Override
+    public String getLongModifierName() {
+        return longModifierName;
+    }
+
+    @Override
+    public String getModifierPackage() {
+        return modifierPackage;
+    }
+
+    @Override
+    public String getBaseClassName() {
+        return baseClassName;
+    }
+
+    @Override
+    public boolean isGenerateConstructor() {
+        return generateConstructor;
+    }
+
+    @Override
+    public boolean isGenerateImplementation() {
+        return generateImplementation;
+    }
+
+    @Override
+    public boolean isGenerateInterface() {
+        return generateInterface;
+    }
+
+    @Override
+    public boolean isBase() {
+        return base;
+    }
+
+    @Override
+    public String getBaseModifierClass() {
+        return baseModifierClass;
+    }
+
+    @Override
+    public String getMixInClass() {
+        return mixInClass;
+    }
+
+    @Override
+    public String getBasePath() {
+        return basePath;
+    }
+
+    @Override
+    public String getInterfacePath() {
+        return interfacePath;
+    }
+
+    @Override
+    public String getImplementationPath() {
+        return implementationPath;
+    }
+
+    @Override
+    public int getOrdinalOffset() {
+        return ordinalOffset;
+    }
+
+    @Override
+    public GenerationStrategy getStrategy() {
+        return strategy;
+    }
+
+    @Override
+    public Map<String, Object> getCustom() {
+        return custom;
+    }
+
+    @Override
+    public List<PrototypeEnricher> getEnrichers() {
+        return enrichers;
+    }
+
+    @Override
+    public List<PrototypeEnricher> getInheritedEnrichers() {
+        return inheritedEnrichers;
+    }
+
+    @Override
+    public Set<Class<? extends CodeOption>> getOptions() {
+        return options;
+    }
+
+    @Override
+    public void setClassGetters(boolean classGetters) {
+        throw immutable();
+    }
+
+    @Override
+    public void setClassSetters(boolean classSetters) {
+        throw immutable();
+    }
+
+    @Override
+    public void setInterfaceSetters(boolean interfaceSetters) {
+        throw immutable();
+    }
+
+    @Override
+    public void setGenerateConstructor(boolean generateConstructor) {
+        throw immutable();
+    }
+
+    @Override
+    public void setGenerateImplementation(boolean generateImplementation) {
+        throw immutable();
+    }
+
+    @Override
+    public void setGenerateInterface(boolean generateInterface) {
+        throw immutable();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PrototypeDataSnapshot that)) {
+            return false;
+        }
+        return classPackageSet == that.classPackageSet && classGetters == that.classGetters && classSetters == that.classSetters
+                && interfaceSetters == that.interfaceSetters && generateConstructor == that.generateConstructor
+                && generateImplementation == that.generateImplementation && generateInterface == that.generateInterface
+                && base == that.base && ordinalOffset == that.ordinalOffset && strategy == that.strategy
+                && Objects.equals(prototypeAnnotation, that.prototypeAnnotation)
+                && Objects.equals(prototypeName, that.prototypeName) && Objects.equals(prototypeFullName, that.prototypeFullName)
+                && Objects.equals(name, that.name) && Objects.equals(className, that.className)
+                && Objects.equals(classPackage, that.classPackage) && Objects.equals(interfaceName, that.interfaceName)
+                && Objects.equals(interfacePackage, that.interfacePackage) && Objects.equals(modifierName, that.modifierName)
+                && Objects.equals(longModifierName, that.longModifierName) && Objects.equals(modifierPackage, that.modifierPackage)
+                && Objects.equals(baseClassName, that.baseClassName) && Objects.equals(baseModifierClass, that.baseModifierClass)
+                && Objects.equals(mixInClass, that.mixInClass) && Objects.equals(basePath, that.basePath)
+                && Objects.equals(interfacePath, that.interfacePath) && Objects.equals(implementationPath, that.implementationPath)
+                && Objects.equals(enrichers, that.enrichers) && Objects.equals(inheritedEnrichers, that.inheritedEnrichers)
+                && Objects.equals(options, that.options) && Objects.equals(custom, that.custom);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(prototypeName, name, className, classPackage, interfaceName, strategy, custom);
+    }
+
+    @Override
+    public String toString() {
+        return "PrototypeDataSnapshot(name=" + name + ", className=" + className + ", interfaceName=" + interfaceName + ", custom=" + custom + ")";
+    }
+
+    protected static UnsupportedOperationException immutable() {
+        return new UnsupportedOperationException("Prototype data snapshots are immutable!");
+    }
+
+    protected static <T, C extends Collection<T>> C share(C value, C original) {
+        return Objects.equals(value, original) ? original : value;
+    }
+
+    /**
+     * Read only view of a class's custom properties that stores only the entries differing from the template's.
+     */
+    protected static class CustomMap extends AbstractMap<String, Object> {
+
+        private static final Object REMOVED = new Object();
+
+        private final Map<String, Object> shared;
+        private final Map<String, Object> own;
+
+        protected CustomMap(Map<String, Object> shared, Map<String, Object> own) {
+            this.shared = shared;
+            this.own = own;
+        }
+
+        protected static Map<String, Object> of(Map<String, Object> custom, Map<String, Object> original) {
+            if (isNull(custom)) {
+                return null;
+            }
+            if (isNull(original)) {
+                original = Collections.emptyMap();
+            }
+
+            var own = new HashMap<String, Object>();
+            for (var entry : custom.entrySet()) {
+                var existing = original.get(entry.getKey());
+                if (!Objects.equals(entry.getValue(), existing) || (isNull(existing) && !original.containsKey(entry.getKey()))) {
+                    own.put(intern(entry.getKey()), entry.getValue() instanceof String s ? intern(s) : entry.getValue());
+                }
+            }
+            for (var key : original.keySet()) {
+                if (!custom.containsKey(key)) {
+                    own.put(key, REMOVED);
+                }
+            }
+            return new CustomMap(original, own.isEmpty() ? Collections.emptyMap() : own);
+        }
+
+        @Override
+        public Object get(Object key) {
+            var value = own.get(key);
+            if (nonNull(value) || own.containsKey(key)) {
+                return value == REMOVED ? null : value;
+            }
+            return shared.get(key);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            var value = own.get(key);
+            if (nonNull(value) || own.containsKey(key)) {
+                return value != REMOVED;
+            }
+            return shared.containsKey(key);
+        }
+
+        @Override
+        public Set<Entry<String, Object>> entrySet() {
+            var result = new LinkedHashSet<Entry<String, Object>>();
+            shared.forEach((k, v) -> {
+                if (!own.containsKey(k)) {
+                    result.add(new SimpleImmutableEntry<>(k, v));
+                }
+            });
+            own.forEach((k, v) -> {
+                if (v != REMOVED) {
+                    result.add(new SimpleImmutableEntry<>(k, v));
+                }
+            });
+            return Collections.unmodifiableSet(result);
+        }
+    }
+
+}
@@ -0,0 +1,80 @@
+package net.binis.intellij.tools.objects;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Objects.isNull;
+
+/**
+ * PSI free form of a template's resolved defaults, used to persist library templates between IDE sessions.
+ */
+@Data
+public class TemplateSnapshot {
+
+    private List<Values> annotations = new ArrayList<>();
+    private Values defaults = new Values();
+
+    @Data
+    public static class Values {
+        private String name;
+        private Map<String, String> attributes = new LinkedHashMap<>();
+        private Map<String, Value> custom = new LinkedHashMap<>();
+        private List<String> enrichers;
+        private List<String> inheritedEnrichers;
+    }
+
+    /**
+     * Custom attribute value that keeps the type it had when read from PSI.
+     */
+    @Data
+    public static class Value {
+        private String type;
+        private String text;
+        private List<Value> items;
+
+        public static Value of(Object object) {
+            var result = new Value();
+            if (isNull(object)) {
+                result.setType("null");
+            } else if (object instanceof List<?> list) {
+                result.setType("list");
+                result.setItems(new ArrayList<>(list.stream().map(Value::of).toList()));
+            } else {
+                result.setType(switch (object) {
+                    case Integer i -> "int";
+                    case Long l -> "long";
+                    case Boolean b -> "boolean";
+                    case Character c -> "char";
+                    case Double d -> "double";
+                    case Float f -> "float";
+                    case Short s -> "short";
+                    case Byte b -> "byte";
+                    default -> "string";
+                });
+                result.setText(object.toString());
+            }
+            return result;
+        }
+
+        public Object toObject() {
+            return switch (type) {
+                case "null" -> null;
+                case "list" -> items.stream().map(Value::toObject).toList();
+                case "int" -> Integer.valueOf(text);
+                case "long" -> Long.valueOf(text);
+                case "boolean" -> Boolean.valueOf(text);
+                case "char" -> text.charAt(0);
+                case "double" -> Double.valueOf(text);
+                case "float" -> Float.valueOf(text);
+                case "short" -> Short.valueOf(text);
+                case "byte" -> Byte.valueOf(text);
+                default -> text;
+            };
+        }
+    }
+
+}
@@ -0,0 +1,183 @@
+package net.binis.intellij.toolwindow;
+
+import com.intellij.codeInsight.daemon.DaemonCodeAnalyzer;
+import com.intellij.icons.AllIcons;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.actionSystem.ActionManager;
+import com.intellij.openapi.actionSystem.DefaultActionGroup;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.DumbAwareAction;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.SimpleToolWindowPanel;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.ui.ScrollPaneFactory;
+import com.intellij.ui.components.JBLabel;
+import com.intellij.ui.table.TableView;
+import com.intellij.util.Alarm;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.intellij.util.ui.ColumnInfo;
+import com.intellij.util.ui.JBUI;
+import com.intellij.util.ui.ListTableModel;
+import net.binis.intellij.services.CodeGenProjectService;
+import net.binis.intellij.tools.Lookup;
+import org.jetbrains.annotations.NotNull;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.function.Function;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Lists the entries of the project lookup registry together with their age, hit counts and whether the file they were
+ * read from changed since. Refreshes itself periodically while visible.
+ */
+public class CodeGenRegistryPanel extends SimpleToolWindowPanel implements Disposable {
+
+    private static final int REFRESH_INTERVAL = 5000;
+
+    protected record Row(String cache, String name, long created, int hits, String state) {}
+
+    protected record Snapshot(List<Row> rows, String summary) {}
+
+    private final Project project;
+    private final ListTableModel<Row> model;
+    private final TableView<Row> table;
+    private final JBLabel summary = new JBLabel();
+    private final Alarm alarm = new Alarm(Alarm.ThreadToUse.SWING_THREAD, this);
+
+    public CodeGenRegistryPanel(Project project) {
+        super(true, true);
+        this.project = project;
+        this.model = new ListTableModel<>(
+                column("Cache", Row::cache, Comparator.comparing(Row::cache)),
+                column("Name", Row::name, Comparator.comparing(Row::name)),
+                column("Age", r -> r.created() > 0 ? StringUtil.formatDuration(System.currentTimeMillis() - r.created()) : "", Comparator.comparingLong(r -> -r.created())),
+                column("Hits", r -> r.hits() >= 0 ? Integer.toString(r.hits()) : "", Comparator.comparingInt(Row::hits)),
+                column("State", Row::state, Comparator.comparing(Row::state)));
+        this.model.setSortable(true);
+        this.table = new TableView<>(model);
+
+        var group = new DefaultActionGroup(
+                DumbAwareAction.create("Refresh", AllIcons.Actions.Refresh, e -> refresh()),
+                DumbAwareAction.create("Invalidate Selected", AllIcons.General.Remove, e -> invalidateSelected()),
+                DumbAwareAction.create("Invalidate All", AllIcons.Actions.GC, e -> invalidateAll()));
+        var toolbar = ActionManager.getInstance().createActionToolbar("BinisCodeGenRegistry", group, true);
+        toolbar.setTargetComponent(table);
+        setToolbar(toolbar.getComponent());
+
+        summary.setBorder(JBUI.Borders.empty(4));
+        var content = new JPanel(new BorderLayout());
+        content.add(summary, BorderLayout.NORTH);
+        content.add(ScrollPaneFactory.createScrollPane(table), BorderLayout.CENTER);
+        setContent(content);
+
+        refresh();
+        scheduleRefresh();
+    }
+
+    /**
+     * Collects the rows in a background read action and swaps them into the table on the EDT.
+     */
+    public void refresh() {
+        ReadAction.nonBlocking(this::collect)
+                .expireWith(this)
+                .coalesceBy(this)
+                .finishOnUiThread(ModalityState.any(), snapshot -> {
+                    model.setItems(new ArrayList<>(snapshot.rows()));
+                    summary.setText(snapshot.summary());
+                })
+                .submit(AppExecutorUtil.getAppExecutorService());
+    }
+
+    protected Snapshot collect() {
+        var registry = Lookup.registry(project);
+        var rows = new ArrayList<Row>();
+        var sizes = new StringJoiner(", ");
+        var states = new HashMap<String, String>();
+        for (var cache : registry.getCaches()) {
+            var entries = cache.getEntries();
+            for (var entry : entries) {
+                ProgressManager.checkCanceled();
+                rows.add(new Row(cache.getName(), entry.key(), entry.created(), entry.hits(), state(registry, states, entry.key())));
+            }
+            sizes.add(cache.getName() + ": " + entries.size() + " (~" + StringUtil.formatFileSize(cache.getFootprint()) + ")");
+        }
+        addKeys(rows, sizes, states, registry, "prototypes", registry.getPrototypes());
+        addKeys(rows, sizes, states, registry, "templates", registry.getDefaultProperties());
+        return new Snapshot(rows, sizes.toString());
+    }
+
+    protected void addKeys(ArrayList<Row> rows, StringJoiner sizes, Map<String, String> states, CodeGenProjectService registry, String cache, Map<String, ?> map) {
+        var count = 0;
+        for (var name : map.keySet()) {
+            rows.add(new Row(cache, name, 0, -1, state(registry, states, name)));
+            count++;
+        }
+        sizes.add(cache + ": " + count);
+    }
+
+    protected String state(CodeGenProjectService registry, Map<String, String> states, String name) {
+        return states.computeIfAbsent(name, n -> {
+            var stamp = registry.getStamp(n);
+            if (isNull(stamp)) {
+                return "";
+            }
+            return stamp.isValid(project) ? "valid" : "stale";
+        });
+    }
+
+    protected void scheduleRefresh() {
+        alarm.addRequest(() -> {
+            //Keep the user's selection, refresh on the next tick instead
+            if (isShowing() && table.getSelectedObjects().isEmpty()) {
+                refresh();
+            }
+            scheduleRefresh();
+        }, REFRESH_INTERVAL);
+    }
+
+    @Override
+    public void dispose() {
+        //Alarm is disposed as a child
+    }
+
+    protected void invalidateSelected() {
+        var selection = table.getSelectedObjects();
+        if (!selection.isEmpty()) {
+            for (var row : selection) {
+                Lookup.invalidate(project, row.name());
+            }
+            DaemonCodeAnalyzer.getInstance(project).restart();
+            refresh();
+        }
+    }
+
+    protected void invalidateAll() {
+        Lookup.invalidateAll(project);
+        refresh();
+    }
+
+    protected static ColumnInfo<Row, String> column(String name, Function<Row, String> getter, Comparator<Row> comparator) {
+        return new ColumnInfo<>(name) {
+            @Override
+            public String valueOf(Row row) {
+                return getter.apply(row);
+            }
+
+            @Override
+            public @NotNull Comparator<Row> getComparator() {
+                return comparator;
+            }
+        };
+    }
+
+}
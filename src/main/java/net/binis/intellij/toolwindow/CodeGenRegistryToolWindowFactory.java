@@ -0,0 +1,21 @@
+package net.binis.intellij.toolwindow;
+
+import com.intellij.openapi.project.DumbAware;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.openapi.wm.ToolWindow;
+import com.intellij.openapi.wm.ToolWindowFactory;
+import com.intellij.ui.content.ContentFactory;
+import org.jetbrains.annotations.NotNull;
+
+public class CodeGenRegistryToolWindowFactory implements ToolWindowFactory, DumbAware {
+
+    @Override
+    public void createToolWindowContent(@NotNull Project project, @NotNull ToolWindow toolWindow) {
+        var panel = new CodeGenRegistryPanel(project);
+        Disposer.register(toolWindow.getDisposable(), panel);
+        var content = ContentFactory.getInstance().createContent(panel, "Registry", false);
+        toolWindow.getContentManager().addContent(content);
+    }
+
+}
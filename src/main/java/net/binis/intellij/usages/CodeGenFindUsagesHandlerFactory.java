@@ -44,20 +44,23 @@ public class CodeGenFindUsagesHandlerFactory extends FindUsagesHandlerFactory {
             public PsiElement @NotNull [] getPrimaryElements() {
                 if (Binis.isCodeGenUsed(element)) {
                     if (element instanceof PsiClass cls && nonNull(cls.getQualifiedName())) {
-                        var name = Lookup.getGeneratedName(cls.getQualifiedName());
-                        var generated = Lookup.findClass(name);
+                        var name = Lookup.getGeneratedName(cls.getProject(), cls.getQualifiedName());
+                        var generated = Lookup.findClass(element, name);
                         if (generated.isPresent()) {
                             var result = new ArrayList<PsiElement>();
                             if (Lookup.isGenerated(cls)) {
-                                nullCheck(Lookup.getPrototypeClass(name), result::add);
+                                nullCheck(Lookup.getPrototypeClass(element.getProject(), name), result::add);
                             }
                             result.add(generated.get());
+                            Lookup.getGeneratedClasses(element.getProject(), cls.getQualifiedName()).stream()
+                                    .filter(n -> !n.equals(name))
+                                    .forEach(n -> Lookup.findClass(element.getProject(), n).ifPresent(result::add));
                             return result.toArray(PsiElement[]::new);
                         }
                     } else if (element instanceof PsiMethod method && method.getParent() instanceof PsiClass cls && nonNull(cls.getQualifiedName())) {
                         if (Lookup.isPrototype(cls)) {
-                            var name = Lookup.getGeneratedName(cls.getQualifiedName());
-                            var generated = Lookup.findClass(name);
+                            var name = Lookup.getGeneratedName(cls.getProject(), cls.getQualifiedName());
+                            var generated = Lookup.findClass(element, name);
                             if (generated.isPresent()) {
                                 var result = new ArrayList<PsiElement>();
                                 Arrays.stream(generated.get().getAllMethods())
@@ -67,7 +70,7 @@ public class CodeGenFindUsagesHandlerFactory extends FindUsagesHandlerFactory {
                                         .forEach(result::add);
                                 Arrays.stream(generated.get().getAllMethods()).filter(m -> "with".equals(m.getName())).findFirst().ifPresent(m ->
                                         with(m.getReturnType(), type ->
-                                                Lookup.findClass(type.getCanonicalText()).ifPresent(c ->
+                                                Lookup.findClass(element, type.getCanonicalText()).ifPresent(c ->
                                                         Arrays.stream(c.getAllMethods()).filter(w ->
                                                                 method.getName().equals(w.getName())).forEach(result::add))));
                                 if (!result.isEmpty()) {
@@ -75,7 +78,7 @@ public class CodeGenFindUsagesHandlerFactory extends FindUsagesHandlerFactory {
                                 }
                             }
                         } else {
-                            var proto = Lookup.getPrototypeClass(cls);
+                            var proto = Lookup.isGenerated(cls) ? Lookup.getPrototypeClass(cls) : null;
                             if (nonNull(proto)) {
                                 var result = new ArrayList<PsiElement>();
                                 var name = method.getName().startsWith("get") || method.getName().startsWith("is") ? Helpers.getFieldName(method.getName()) : method.getName();
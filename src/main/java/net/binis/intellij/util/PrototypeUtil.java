@@ -36,16 +36,20 @@ public class PrototypeUtil {
         return null;
     }
 
+    public static <T extends Enum<T>> T readEnumValue(String value, Class<T> type) {
+        if (StringUtils.isNotBlank(value)) {
+            try {
+                return Enum.valueOf(type, value);
+            } catch (Exception e) {
+                //ignore
+            }
+        }
+        return null;
+    }
+
     public static <T extends Enum<T>> T readAnnotationEnumValue(Object memberValue, Class<T> type) {
         if (memberValue instanceof PsiReferenceExpression exp) {
-            var value = exp.getReferenceName();
-            if (StringUtils.isNotBlank(value)) {
-                try {
-                    return Enum.valueOf(type, value);
-                } catch (Exception e) {
-                    //ignore
-                }
-            }
+            return readEnumValue(exp.getReferenceName(), type);
         } else if (memberValue instanceof JvmAnnotationEnumFieldValue value) {
             try {
                 return Enum.valueOf(type, value.getField().getName());